@@ -0,0 +1,123 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.soap;
+
+import org.apache.cxf.binding.soap.Soap12;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares the strategies to route a SOAP message of the router endpoint to the service of its OCPP version:
+ *
+ * - stax: parse the message up to the first child of the body (the approach before the byte scan, and still the
+ *   fallback), after which CXF parses the message again
+ * - byteScan: scan the beginning of the message for the known namespaces, see {@link NamespaceSniffer#sniff}
+ * - versionPath: the station uses the endpoint of its version, and the routing is a lookup of the path
+ *
+ * fullParse is not a routing strategy, but one parse of the whole message, which CXF does in any case. It shows how
+ * much the routing adds on top.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NamespaceRoutingBenchmark {
+
+    private static final Map<String, String> PATHS = Map.of(
+            "/CentralSystemServiceOCPP12", SoapEnvelopes.NAMESPACES.get("1.2"),
+            "/CentralSystemServiceOCPP15", SoapEnvelopes.NAMESPACES.get("1.5"),
+            "/CentralSystemServiceOCPP16", SoapEnvelopes.NAMESPACES.get("1.6")
+    );
+
+    @Param({"1.2", "1.5", "1.6"})
+    public String version;
+
+    private byte[] message;
+    private String path;
+    private NamespaceSniffer sniffer;
+
+    @Setup
+    public void setup() throws Exception {
+        message = SoapEnvelopes.meterValues(version).getBytes(UTF_8);
+        path = "/CentralSystemServiceOCPP" + version.replace(".", "");
+        sniffer = new NamespaceSniffer(SoapEnvelopes.NAMESPACES.values());
+
+        // otherwise, we would compare strategies that do not agree
+        String expected = SoapEnvelopes.NAMESPACES.get(version);
+        if (!expected.equals(stax()) || !expected.equals(byteScan()) || !expected.equals(versionPath())) {
+            throw new IllegalStateException("The strategies do not find the namespace of OCPP " + version);
+        }
+    }
+
+    @Benchmark
+    public String stax() throws Exception {
+        BufferedInputStream bis = new BufferedInputStream(new ByteArrayInputStream(message));
+        bis.mark(bis.available());
+        String namespace = NamespaceSniffer.parse(bis, "UTF-8", Soap12.getInstance());
+        bis.reset();
+        return namespace;
+    }
+
+    @Benchmark
+    public String byteScan() throws Exception {
+        BufferedInputStream bis = new BufferedInputStream(new ByteArrayInputStream(message),
+                NamespaceSniffer.SCAN_LIMIT);
+        return sniffer.sniff(bis, "UTF-8", Soap12.getInstance());
+    }
+
+    @Benchmark
+    public String versionPath() {
+        return PATHS.get(path);
+    }
+
+    @Benchmark
+    public int fullParse() throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(message), "UTF-8");
+        int events = 0;
+        while (reader.hasNext()) {
+            reader.next();
+            events++;
+        }
+        reader.close();
+        return events;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.soap;
+
+import java.util.Map;
+
+/**
+ * Typical MeterValues messages of SOAP charge points (SOAP 1.2 with WS-Addressing headers), per OCPP version.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+final class SoapEnvelopes {
+
+    static final Map<String, String> NAMESPACES = Map.of(
+            "1.2", "urn://Ocpp/Cs/2010/08/",
+            "1.5", "urn://Ocpp/Cs/2012/06/",
+            "1.6", "urn://Ocpp/Cs/2015/10/"
+    );
+
+    private SoapEnvelopes() { }
+
+    static String meterValues(String version) {
+        String ns = NAMESPACES.get(version);
+        if (ns == null) {
+            throw new IllegalArgumentException("Unknown version " + version);
+        }
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<soap:Envelope xmlns:soap=\"http://www.w3.org/2003/05/soap-envelope\""
+                + " xmlns:wsa5=\"http://www.w3.org/2005/08/addressing\">"
+                + "<soap:Header>"
+                + "<chargeBoxIdentity xmlns=\"" + ns + "\">benchmark-cp</chargeBoxIdentity>"
+                + "<wsa5:MessageID>urn:uuid:2d3c54ab-9b87-4d8f-a1f1-6d4a0a8d2a51</wsa5:MessageID>"
+                + "<wsa5:From><wsa5:Address>http://192.168.100.17:8080/ChargeBox/Ocpp</wsa5:Address></wsa5:From>"
+                + "<wsa5:ReplyTo><wsa5:Address>http://www.w3.org/2005/08/addressing/anonymous</wsa5:Address>"
+                + "</wsa5:ReplyTo>"
+                + "<wsa5:To soap:mustUnderstand=\"true\">http://steve.example.com/steve/services/CentralSystemService"
+                + "</wsa5:To>"
+                + "<wsa5:Action soap:mustUnderstand=\"true\">/MeterValues</wsa5:Action>"
+                + "</soap:Header>"
+                + "<soap:Body>"
+                + "<meterValuesRequest xmlns=\"" + ns + "\">"
+                + body(version)
+                + "</meterValuesRequest>"
+                + "</soap:Body>"
+                + "</soap:Envelope>";
+    }
+
+    private static String body(String version) {
+        switch (version) {
+            case "1.2":
+                return "<connectorId>1</connectorId>"
+                        + "<values><timestamp>2026-10-18T10:15:00Z</timestamp><value>12345</value></values>"
+                        + "<values><timestamp>2026-10-18T10:16:00Z</timestamp><value>12399</value></values>";
+            case "1.5":
+                return "<connectorId>1</connectorId><transactionId>4711</transactionId>"
+                        + "<values><timestamp>2026-10-18T10:15:00Z</timestamp>"
+                        + "<value context=\"Sample.Periodic\" measurand=\"Energy.Active.Import.Register\" unit=\"Wh\">"
+                        + "12345</value>"
+                        + "<value context=\"Sample.Periodic\" measurand=\"Power.Active.Import\" unit=\"W\">"
+                        + "11000</value>"
+                        + "</values>";
+            default:
+                return "<connectorId>1</connectorId><transactionId>4711</transactionId>"
+                        + "<meterValue><timestamp>2026-10-18T10:15:00Z</timestamp>"
+                        + sampledValue("12345", "Energy.Active.Import.Register", "Wh", null)
+                        + sampledValue("11000", "Power.Active.Import", "W", null)
+                        + sampledValue("16.1", "Current.Import", "A", "L1")
+                        + sampledValue("16.0", "Current.Import", "A", "L2")
+                        + sampledValue("15.9", "Current.Import", "A", "L3")
+                        + sampledValue("231.2", "Voltage", "V", "L1-N")
+                        + sampledValue("230.8", "Voltage", "V", "L2-N")
+                        + sampledValue("229.9", "Voltage", "V", "L3-N")
+                        + sampledValue("54", "SoC", "Percent", null)
+                        + "</meterValue>";
+        }
+    }
+
+    private static String sampledValue(String value, String measurand, String unit, String phase) {
+        return "<sampledValue><value>" + value + "</value>"
+                + "<context>Sample.Periodic</context><format>Raw</format>"
+                + "<measurand>" + measurand + "</measurand>"
+                + (phase == null ? "" : "<phase>" + phase + "</phase>")
+                + "<location>Outlet</location><unit>" + unit + "</unit></sampledValue>";
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.pipeline;
+
+import de.rwth.idsg.steve.ocpp.ws.TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Incoming CALL messages of charge points, as they are seen in the field. The key is "{version}/{action}".
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public final class IncomingMessages {
+
+    private IncomingMessages() { }
+
+    private static final String TIMESTAMP = "\"2026-10-18T10:15:30.123Z\"";
+    private static final String ID_TAG = "\"04E91C5A123456\"";
+
+    // A charge point with 3 phases that reports every 60 seconds and sends the readings of 15 minutes at once
+    private static final int METER_VALUE_COUNT = 15;
+
+    private static final Map<String, String> MESSAGES = new HashMap<>();
+
+    static {
+        // ---------------------------------------------------------------------
+        // OCPP 1.2
+        // ---------------------------------------------------------------------
+
+        put("1.2", "Authorize", "{\"idTag\":" + ID_TAG + "}");
+        put("1.2", "BootNotification", "{\"chargePointVendor\":\"VendorX\",\"chargePointModel\":\"ModelY-22kW\","
+                + "\"chargePointSerialNumber\":\"CP-000123\",\"chargeBoxSerialNumber\":\"CB-000123\","
+                + "\"firmwareVersion\":\"1.8.3\",\"iccid\":\"89490200001234567890\",\"imsi\":\"262011234567890\","
+                + "\"meterType\":\"ABB B23\",\"meterSerialNumber\":\"MTR-000123\"}");
+        put("1.2", "DiagnosticsStatusNotification", "{\"status\":\"Uploaded\"}");
+        put("1.2", "FirmwareStatusNotification", "{\"status\":\"Installed\"}");
+        put("1.2", "Heartbeat", "{}");
+        put("1.2", "MeterValues", meterValues12());
+        put("1.2", "StartTransaction", "{\"connectorId\":1,\"idTag\":" + ID_TAG + ",\"timestamp\":" + TIMESTAMP
+                + ",\"meterStart\":1234567}");
+        put("1.2", "StatusNotification", "{\"connectorId\":1,\"status\":\"Occupied\",\"errorCode\":\"NoError\"}");
+        put("1.2", "StopTransaction", "{\"transactionId\":4711,\"idTag\":" + ID_TAG + ",\"timestamp\":" + TIMESTAMP
+                + ",\"meterStop\":1244567}");
+
+        // ---------------------------------------------------------------------
+        // OCPP 1.5
+        // ---------------------------------------------------------------------
+
+        put("1.5", "Authorize", "{\"idTag\":" + ID_TAG + "}");
+        put("1.5", "BootNotification", "{\"chargePointVendor\":\"VendorX\",\"chargePointModel\":\"ModelY-22kW\","
+                + "\"chargePointSerialNumber\":\"CP-000123\",\"chargeBoxSerialNumber\":\"CB-000123\","
+                + "\"firmwareVersion\":\"1.8.3\",\"iccid\":\"89490200001234567890\",\"imsi\":\"262011234567890\","
+                + "\"meterType\":\"ABB B23\",\"meterSerialNumber\":\"MTR-000123\"}");
+        put("1.5", "DataTransfer", "{\"vendorId\":\"com.vendorx\",\"messageId\":\"ChargingSessionInfo\","
+                + "\"data\":\"{\\\"sessionId\\\":\\\"a1b2c3\\\",\\\"plugType\\\":\\\"Type2\\\"}\"}");
+        put("1.5", "DiagnosticsStatusNotification", "{\"status\":\"Uploaded\"}");
+        put("1.5", "FirmwareStatusNotification", "{\"status\":\"Installed\"}");
+        put("1.5", "Heartbeat", "{}");
+        put("1.5", "MeterValues", meterValues15());
+        put("1.5", "StartTransaction", "{\"connectorId\":1,\"idTag\":" + ID_TAG + ",\"timestamp\":" + TIMESTAMP
+                + ",\"meterStart\":1234567}");
+        put("1.5", "StatusNotification", "{\"connectorId\":1,\"status\":\"Occupied\",\"errorCode\":\"NoError\","
+                + "\"info\":\"Cable locked\",\"timestamp\":" + TIMESTAMP + ",\"vendorId\":\"com.vendorx\","
+                + "\"vendorErrorCode\":\"0\"}");
+        put("1.5", "StopTransaction", "{\"transactionId\":4711,\"idTag\":" + ID_TAG + ",\"timestamp\":" + TIMESTAMP
+                + ",\"meterStop\":1244567}");
+
+        // ---------------------------------------------------------------------
+        // OCPP 1.6
+        // ---------------------------------------------------------------------
+
+        put("1.6", "Authorize", "{\"idTag\":" + ID_TAG + "}");
+        put("1.6", "BootNotification", "{\"chargePointVendor\":\"VendorX\",\"chargePointModel\":\"ModelY-22kW\","
+                + "\"chargePointSerialNumber\":\"CP-000123\",\"chargeBoxSerialNumber\":\"CB-000123\","
+                + "\"firmwareVersion\":\"1.8.3\",\"iccid\":\"89490200001234567890\",\"imsi\":\"262011234567890\","
+                + "\"meterType\":\"ABB B23\",\"meterSerialNumber\":\"MTR-000123\"}");
+        put("1.6", "DataTransfer", "{\"vendorId\":\"com.vendorx\",\"messageId\":\"ChargingSessionInfo\","
+                + "\"data\":\"{\\\"sessionId\\\":\\\"a1b2c3\\\",\\\"plugType\\\":\\\"Type2\\\"}\"}");
+        put("1.6", "DiagnosticsStatusNotification", "{\"status\":\"Uploaded\"}");
+        put("1.6", "FirmwareStatusNotification", "{\"status\":\"Installed\"}");
+        put("1.6", "Heartbeat", "{}");
+        put("1.6", "MeterValues", meterValues16());
+        put("1.6", "StartTransaction", "{\"connectorId\":1,\"idTag\":" + ID_TAG + ",\"timestamp\":" + TIMESTAMP
+                + ",\"meterStart\":1234567}");
+        put("1.6", "StatusNotification", "{\"connectorId\":1,\"errorCode\":\"NoError\",\"status\":\"Charging\","
+                + "\"info\":\"Cable locked\",\"timestamp\":" + TIMESTAMP + ",\"vendorId\":\"com.vendorx\","
+                + "\"vendorErrorCode\":\"0\"}");
+        put("1.6", "StopTransaction", "{\"transactionId\":4711,\"idTag\":" + ID_TAG + ",\"timestamp\":" + TIMESTAMP
+                + ",\"meterStop\":1244567,\"reason\":\"EVDisconnected\",\"transactionData\":"
+                + meterValueList16() + "}");
+    }
+
+    public static String get(String key) {
+        String message = MESSAGES.get(key);
+        if (message == null) {
+            throw new IllegalArgumentException("No message for key '" + key + "'");
+        }
+        return message;
+    }
+
+    public static TypeStore getTypeStore(String key) {
+        String version = key.substring(0, key.indexOf('/'));
+        switch (version) {
+            case "1.2": return Ocpp12TypeStore.INSTANCE;
+            case "1.5": return Ocpp15TypeStore.INSTANCE;
+            case "1.6": return Ocpp16TypeStore.INSTANCE;
+            default: throw new IllegalArgumentException("Unknown version '" + version + "'");
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private static void put(String version, String action, String payload) {
+        String message = "[2,\"19223201-6b1c-4a6e-9c35-" + Math.abs(action.hashCode()) + "\",\""
+                + action + "\"," + payload + "]";
+        MESSAGES.put(version + "/" + action, message);
+    }
+
+    private static String meterValues12() {
+        StringBuilder sb = new StringBuilder("{\"connectorId\":1,\"values\":[");
+        for (int i = 0; i < METER_VALUE_COUNT; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"timestamp\":").append(TIMESTAMP).append(",\"value\":").append(1234567 + i * 183).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String meterValues15() {
+        StringBuilder sb = new StringBuilder("{\"connectorId\":1,\"transactionId\":4711,\"values\":[");
+        for (int i = 0; i < METER_VALUE_COUNT; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"timestamp\":").append(TIMESTAMP).append(",\"value\":[")
+              .append(value15(String.valueOf(1234567 + i * 183), "Energy.Active.Import.Register", "Wh")).append(',')
+              .append(value15("11040", "Power.Active.Import", "W")).append(',')
+              .append(value15("16.1", "Current.Import", "Amp")).append(',')
+              .append(value15("229.8", "Voltage", "Volt")).append(',')
+              .append(value15("34.5", "Temperature", "Celsius"))
+              .append("]}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String value15(String value, String measurand, String unit) {
+        return "{\"value\":\"" + value + "\",\"context\":\"Sample.Periodic\",\"format\":\"Raw\","
+                + "\"measurand\":\"" + measurand + "\",\"location\":\"Outlet\",\"unit\":\"" + unit + "\"}";
+    }
+
+    private static String meterValues16() {
+        return "{\"connectorId\":1,\"transactionId\":4711,\"meterValue\":" + meterValueList16() + "}";
+    }
+
+    private static String meterValueList16() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < METER_VALUE_COUNT; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"timestamp\":").append(TIMESTAMP).append(",\"sampledValue\":[")
+              .append(value16(String.valueOf(1234567 + i * 183), "Energy.Active.Import.Register", null, "Wh"))
+              .append(',').append(value16("11040", "Power.Active.Import", null, "W"));
+
+            for (String phase : new String[] {"L1", "L2", "L3"}) {
+                sb.append(',').append(value16("16.1", "Current.Import", phase, "A"))
+                  .append(',').append(value16("229.8", "Voltage", phase + "-N", "V"));
+            }
+
+            sb.append(',').append(value16("64", "SoC", null, "Percent"))
+              .append("]}");
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String value16(String value, String measurand, String phase, String unit) {
+        return "{\"value\":\"" + value + "\",\"context\":\"Sample.Periodic\",\"format\":\"Raw\","
+                + "\"measurand\":\"" + measurand + "\","
+                + (phase == null ? "" : "\"phase\":\"" + phase + "\",")
+                + "\"location\":\"Outlet\",\"unit\":\"" + unit + "\"}";
+    }
+}
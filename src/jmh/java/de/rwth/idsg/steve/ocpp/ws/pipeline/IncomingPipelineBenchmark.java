@@ -0,0 +1,145 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.pipeline;
+
+import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steps of the pipeline for incoming CALLs of charge points, and the whole pipeline. The services
+ * behind the call handler are replaced with {@link StubCallHandler}, so that the numbers do not depend on a database.
+ *
+ * Run with "-prof gc" (default of the benchmark profile) to see the allocations per message (gc.alloc.rate.norm).
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncomingPipelineBenchmark {
+
+    private static final String CHARGE_BOX_ID = "benchmark-cp";
+
+    @Param({
+            "1.2/Authorize", "1.2/BootNotification", "1.2/DiagnosticsStatusNotification",
+            "1.2/FirmwareStatusNotification", "1.2/Heartbeat", "1.2/MeterValues", "1.2/StartTransaction",
+            "1.2/StatusNotification", "1.2/StopTransaction",
+
+            "1.5/Authorize", "1.5/BootNotification", "1.5/DataTransfer", "1.5/DiagnosticsStatusNotification",
+            "1.5/FirmwareStatusNotification", "1.5/Heartbeat", "1.5/MeterValues", "1.5/StartTransaction",
+            "1.5/StatusNotification", "1.5/StopTransaction",
+
+            "1.6/Authorize", "1.6/BootNotification", "1.6/DataTransfer", "1.6/DiagnosticsStatusNotification",
+            "1.6/FirmwareStatusNotification", "1.6/Heartbeat", "1.6/MeterValues", "1.6/StartTransaction",
+            "1.6/StatusNotification", "1.6/StopTransaction"
+    })
+    public String message;
+
+    private String incomingString;
+    private NoopWebSocketSession session;
+
+    private Deserializer deserializer;
+    private AbstractCallHandler handler;
+    private IncomingPipeline pipeline;
+
+    // holds the deserialized call and the response of the handler, as input of the later steps
+    private CommunicationContext handledContext;
+
+    @Setup
+    public void setup() {
+        // every message is logged with INFO, which would be the main cost otherwise
+        Configurator.setRootLevel(Level.WARN);
+
+        incomingString = IncomingMessages.get(message);
+        session = new NoopWebSocketSession();
+
+        deserializer = new Deserializer(new FutureResponseContextStore(), IncomingMessages.getTypeStore(message));
+        handler = new StubCallHandler();
+        pipeline = new IncomingPipeline(deserializer, handler);
+
+        handledContext = newContext();
+        deserializer.accept(handledContext);
+
+        // otherwise, we would measure the error path without noticing
+        if (handledContext.isSetOutgoingError()) {
+            throw new IllegalStateException("The message '" + message + "' could not be deserialized");
+        }
+
+        handler.accept(handledContext);
+        Serializer.INSTANCE.accept(handledContext);
+    }
+
+    @Benchmark
+    public CommunicationContext deserialize() {
+        CommunicationContext context = newContext();
+        deserializer.accept(context);
+        return context;
+    }
+
+    @Benchmark
+    public CommunicationContext handle() {
+        CommunicationContext context = newContext();
+        context.setIncomingMessage(handledContext.getIncomingMessage());
+        handler.accept(context);
+        return context;
+    }
+
+    @Benchmark
+    public String serialize() {
+        Serializer.INSTANCE.accept(handledContext);
+        return handledContext.getOutgoingString();
+    }
+
+    @Benchmark
+    public Object send() {
+        Sender.INSTANCE.accept(handledContext);
+        return session.getLastMessage();
+    }
+
+    @Benchmark
+    public Object pipeline() {
+        pipeline.accept(newContext());
+        return session.getLastMessage();
+    }
+
+    private CommunicationContext newContext() {
+        CommunicationContext context = new CommunicationContext(session, CHARGE_BOX_ID);
+        context.setIncomingString(incomingString);
+        return context;
+    }
+}
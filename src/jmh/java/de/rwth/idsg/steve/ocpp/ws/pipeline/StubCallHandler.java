@@ -0,0 +1,51 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.pipeline;
+
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replaces the services (and therefore the database) behind the call handlers of the endpoints. Returns an empty
+ * response of the matching type, e.g. BootNotificationResponse for BootNotificationRequest.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public class StubCallHandler extends AbstractCallHandler {
+
+    private final Map<Class<?>, ResponseType> responses = new ConcurrentHashMap<>();
+
+    @Override
+    protected ResponseType dispatch(RequestType params, String chargeBoxId) {
+        return responses.computeIfAbsent(params.getClass(), StubCallHandler::newResponse);
+    }
+
+    private static ResponseType newResponse(Class<?> requestClass) {
+        String responseClassName = requestClass.getName().replaceAll("Request$", "Response");
+        try {
+            return (ResponseType) Class.forName(responseClassName).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No response class for " + requestClass.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve;
+
+/**
+ * Which kind of threads run the blocking work, i.e. the handling of HTTP/WebSocket requests, the processing of
+ * incoming OCPP-J messages and the sending of operations to charge points. Timers always run on platform threads.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public enum ExecutionModel {
+    PLATFORM,
+    VIRTUAL; // requires JDK 21+
+
+    public static ExecutionModel fromName(String v) {
+        if (v == null) {
+            return PLATFORM;
+        }
+        for (ExecutionModel em : ExecutionModel.values()) {
+            if (em.name().equalsIgnoreCase(v)) {
+                return em;
+            }
+        }
+        throw new IllegalArgumentException(v);
+    }
+}
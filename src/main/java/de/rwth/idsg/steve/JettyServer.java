@@ -18,6 +18,7 @@
  */
 package de.rwth.idsg.steve;
 
+import de.rwth.idsg.steve.utils.ThreadFactories;
 import de.rwth.idsg.steve.web.dto.EndpointInfo;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jetty.http.HttpScheme;
@@ -63,9 +64,6 @@ public class JettyServer {
     private Server server;
     private SteveAppContext steveAppContext;
 
-    private static final int MIN_THREADS = 4;
-    private static final int MAX_THREADS = 50;
-
     private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
     private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
 
@@ -77,8 +75,12 @@ public class JettyServer {
         // === jetty.xml ===
         // Setup Threadpool
         QueuedThreadPool threadPool = new QueuedThreadPool();
-        threadPool.setMinThreads(MIN_THREADS);
-        threadPool.setMaxThreads(MAX_THREADS);
+        threadPool.setMinThreads(CONFIG.getExecution().getJettyMinThreads());
+        threadPool.setMaxThreads(CONFIG.getExecution().getJettyMaxThreads());
+
+        // The selectors and acceptors stay on the platform threads of the pool, and only the request handling
+        // (which might block on the database) is dispatched to virtual threads
+        threadPool.setUseVirtualThreads(ThreadFactories.useVirtualThreads());
 
         // Server
         server = new Server(threadPool);
@@ -18,6 +18,7 @@
  */
 package de.rwth.idsg.steve;
 
+import de.rwth.idsg.steve.ocpp.ws.StationMessageExecutor;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategy;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategyEnum;
 import de.rwth.idsg.steve.utils.PropertiesFileLoader;
@@ -60,6 +61,7 @@ public enum SteveConfiguration {
     private final WebApi webApi;
     private final DB db;
     private final Jetty jetty;
+    private final Execution execution;
 
     SteveConfiguration() {
         PropertiesFileLoader p = new PropertiesFileLoader("main.properties");
@@ -80,6 +82,13 @@ public enum SteveConfiguration {
                      .keyStorePassword(p.getOptionalString("keystore.password"))
                      .build();
 
+        execution = Execution.builder()
+                             .model(ExecutionModel.fromName(p.getOptionalString("execution.model")))
+                             .jettyMinThreads(p.getOptionalInt("jetty.threads.min", 4))
+                             .jettyMaxThreads(p.getOptionalInt("jetty.threads.max", 50))
+                             .schedulerThreads(p.getOptionalInt("scheduler.threads", 5))
+                             .build();
+
         db = DB.builder()
                .ip(p.getString("db.ip"))
                .port(p.getInt("db.port"))
@@ -100,12 +109,32 @@ public enum SteveConfiguration {
         webApi = WebApi.builder()
                        .headerKey(p.getOptionalString("webapi.key"))
                        .headerValue(p.getOptionalString("webapi.value"))
+                       .maxPageSize(Math.max(1, p.getOptionalInt("webapi.max.page.size", 1_000)))
                        .build();
 
         ocpp = Ocpp.builder()
                    .autoRegisterUnknownStations(p.getOptionalBoolean("auto.register.unknown.stations"))
                    .wsSessionSelectStrategy(
                            WsSessionSelectStrategyEnum.fromName(p.getString("ws.session.select.strategy")))
+                   .heartbeatFlushIntervalInSeconds(p.getOptionalInt("heartbeat.flush.interval", 30))
+                   .meterValuesQueueSize(p.getOptionalInt("meter.values.queue.size", 10_000))
+                   .meterValuesSpillPath(p.getOptionalString("meter.values.spill.path"))
+                   .connectorPkCacheEnabled(p.getOptionalBoolean("connector.pk.cache.enabled"))
+                   .ocppTagCacheSize(p.getOptionalInt("ocpp.tag.cache.size", 10_000))
+                   .registrationStatusCacheSize(p.getOptionalInt("registration.status.cache.size", 10_000))
+                   .taskStoreMaxSize(p.getOptionalInt("task.store.max.size", 1_000))
+                   .taskStoreTtlInMinutes(p.getOptionalInt("task.store.ttl", 60))
+                   .taskStoreCompactFinished(p.getOptionalBoolean("task.store.compact.finished"))
+                   .fanOutConcurrency(Math.max(1, p.getOptionalInt("fan.out.concurrency", 20)))
+                   .wsStationQueueSize(p.getOptionalInt("ws.station.queue.size", 100))
+                   .wsStationQueueThreads(Math.max(1, p.getOptionalInt("ws.station.queue.threads", 50)))
+                   .wsStationQueueOverloadPolicy(StationMessageExecutor.OverloadPolicy.fromName(
+                           p.getOptionalString("ws.station.queue.overload.policy")))
+                   .statsRefreshIntervalInSeconds(p.getOptionalInt("stats.refresh.interval", 30))
+                   .wsPingMaxMissed(p.getOptionalInt("ws.ping.max.missed", 3))
+                   .wsHandshakeRate(p.getOptionalInt("ws.handshake.rate", 200))
+                   .wsHandshakeRatePerIp(p.getOptionalInt("ws.handshake.rate.per.ip", 0))
+                   .wsHandshakeMaxConcurrent(p.getOptionalInt("ws.handshake.max.concurrent", 50))
                    .build();
 
         validate();
@@ -148,6 +177,12 @@ public enum SteveConfiguration {
             throw new IllegalArgumentException(
                     "HTTP and HTTPS are both disabled. Well, how do you want to access the server, then?");
         }
+        if (execution.jettyMinThreads > execution.jettyMaxThreads) {
+            throw new IllegalArgumentException("The property 'jetty.threads.min' is greater than 'jetty.threads.max'");
+        }
+        if (execution.schedulerThreads < 1) {
+            throw new IllegalArgumentException("The property 'scheduler.threads' must be at least 1");
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -171,6 +206,16 @@ public enum SteveConfiguration {
         private final String keyStorePassword;
     }
 
+    // Thread configuration
+    @Builder @Getter
+    public static class Execution {
+        private final ExecutionModel model;
+        private final int jettyMinThreads;
+        private final int jettyMaxThreads;
+        // for the timers (pings, mails, flushes etc.), always platform threads
+        private final int schedulerThreads;
+    }
+
     // Database configuration
     @Builder @Getter
     public static class DB {
@@ -194,6 +239,8 @@ public enum SteveConfiguration {
     public static class WebApi {
         private final String headerKey;
         private final String headerValue;
+        // max number of items that a list call returns
+        private final int maxPageSize;
     }
 
     // OCPP-related configuration
@@ -201,6 +248,36 @@ public enum SteveConfiguration {
     public static class Ocpp {
         private final boolean autoRegisterUnknownStations;
         private final WsSessionSelectStrategy wsSessionSelectStrategy;
+        // 0 disables buffering, i.e. every heartbeat is written to database immediately
+        private final int heartbeatFlushIntervalInSeconds;
+        // 0 disables the queue, i.e. every MeterValues message is written to database immediately
+        private final int meterValuesQueueSize;
+        // if not set, the caller thread writes to database when the queue is full
+        private final String meterValuesSpillPath;
+        private final boolean connectorPkCacheEnabled;
+        // 0 disables the cache, i.e. every authorization goes to database
+        private final int ocppTagCacheSize;
+        // 0 disables the cache, i.e. every handshake and SOAP message reads the registration status from database
+        private final int registrationStatusCacheSize;
+        private final int taskStoreMaxSize;
+        // finished tasks are removed after this duration
+        private final int taskStoreTtlInMinutes;
+        // if true, only a summary without the responses is kept for finished tasks
+        private final boolean taskStoreCompactFinished;
+        // max number of charge points that an operation is sent to in parallel
+        private final int fanOutConcurrency;
+        // 0 disables the queues, i.e. the incoming messages are processed by the WebSocket threads
+        private final int wsStationQueueSize;
+        private final int wsStationQueueThreads;
+        private final StationMessageExecutor.OverloadPolicy wsStationQueueOverloadPolicy;
+        // 0 disables the snapshot, i.e. the statistics are computed for every request of the home page
+        private final int statsRefreshIntervalInSeconds;
+        // 0 disables the eviction, i.e. sessions with missed pongs are kept until the transport closes them
+        private final int wsPingMaxMissed;
+        // per second, 0 disables the respective limit of WebSocket handshakes
+        private final int wsHandshakeRate;
+        private final int wsHandshakeRatePerIp;
+        private final int wsHandshakeMaxConcurrent;
     }
 
 }
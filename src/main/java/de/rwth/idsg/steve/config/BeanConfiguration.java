@@ -21,7 +21,6 @@ package de.rwth.idsg.steve.config;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mysql.cj.conf.PropertyKey;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -31,6 +30,7 @@ import de.rwth.idsg.steve.service.GithubReleaseCheckService;
 import de.rwth.idsg.steve.service.ReleaseCheckService;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
 import de.rwth.idsg.steve.utils.InternetChecker;
+import de.rwth.idsg.steve.utils.ThreadFactories;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
@@ -64,7 +64,9 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
@@ -84,6 +86,7 @@ public class BeanConfiguration implements WebMvcConfigurer {
 
     private HikariDataSource dataSource;
     private ScheduledThreadPoolExecutor executor;
+    private ThreadPoolExecutor fanOutExecutor;
 
     /**
      * https://github.com/brettwooldridge/HikariCP/wiki/MySQL-Configuration
@@ -149,13 +152,27 @@ public class BeanConfiguration implements WebMvcConfigurer {
 
     @Bean
     public ScheduledExecutorService scheduledExecutorService() {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("SteVe-Executor-%d")
-                                                                .build();
+        ThreadFactory threadFactory = ThreadFactories.forTimers("SteVe-Executor-%d");
 
-        executor = new ScheduledThreadPoolExecutor(5, threadFactory);
+        executor = new ScheduledThreadPoolExecutor(CONFIG.getExecution().getSchedulerThreads(), threadFactory);
         return executor;
     }
 
+    /**
+     * Sends the requests of operations to the selected charge points in parallel. It is separate from the scheduled
+     * executor above, so that an operation for thousands of stations does not delay the pings, mails etc.
+     */
+    @Bean
+    public ExecutorService fanOutExecutor() {
+        ThreadFactory threadFactory = ThreadFactories.forBlockingWork("SteVe-FanOut-%d");
+
+        int concurrency = CONFIG.getOcpp().getFanOutConcurrency();
+        fanOutExecutor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        fanOutExecutor.allowCoreThreadTimeOut(true);
+        return fanOutExecutor;
+    }
+
     @Bean
     public Validator validator() {
         return new LocalValidatorFactoryBean();
@@ -190,6 +207,10 @@ public class BeanConfiguration implements WebMvcConfigurer {
         if (executor != null) {
             gracefulShutDown(executor);
         }
+
+        if (fanOutExecutor != null) {
+            gracefulShutDown(fanOutExecutor);
+        }
     }
 
     private void gracefulShutDown(ExecutorService executor) {
@@ -19,6 +19,7 @@
 package de.rwth.idsg.steve.config;
 
 import com.google.common.collect.Lists;
+import de.rwth.idsg.steve.ocpp.ws.HandshakeAdmissionController;
 import de.rwth.idsg.steve.ocpp.ws.OcppWebSocketHandshakeHandler;
 import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12WebSocketEndpoint;
 import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15WebSocketEndpoint;
@@ -45,6 +46,7 @@ import java.util.concurrent.TimeUnit;
 public class WebSocketConfiguration implements WebSocketConfigurer {
 
     @Autowired private ChargePointHelperService chargePointHelperService;
+    @Autowired private HandshakeAdmissionController handshakeAdmissionController;
 
     @Autowired private Ocpp12WebSocketEndpoint ocpp12WebSocketEndpoint;
     @Autowired private Ocpp15WebSocketEndpoint ocpp15WebSocketEndpoint;
@@ -53,6 +55,7 @@ public class WebSocketConfiguration implements WebSocketConfigurer {
     public static final String PATH_INFIX = "/websocket/CentralSystemService/";
     public static final long PING_INTERVAL = TimeUnit.MINUTES.toMinutes(15);
     public static final Duration IDLE_TIMEOUT = Duration.ofHours(2);
+    public static final Duration RESPONSE_TIMEOUT = Duration.ofMinutes(2);
     public static final int MAX_MSG_SIZE = 8_388_608; // 8 MB for max message size
 
     @Override
@@ -61,7 +64,8 @@ public class WebSocketConfiguration implements WebSocketConfigurer {
         OcppWebSocketHandshakeHandler handshakeHandler = new OcppWebSocketHandshakeHandler(
             new DefaultHandshakeHandler(),
             Lists.newArrayList(ocpp16WebSocketEndpoint, ocpp15WebSocketEndpoint, ocpp12WebSocketEndpoint),
-            chargePointHelperService
+            chargePointHelperService,
+            handshakeAdmissionController
         );
 
         registry.addHandler(handshakeHandler.getDummyWebSocketHandler(), PATH_INFIX + "*")
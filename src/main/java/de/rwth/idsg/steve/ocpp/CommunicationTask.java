@@ -44,7 +44,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @since 09.03.2018
  */
 @Getter
-public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE> {
+public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE> implements TaskView {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -60,8 +60,11 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
     private final DateTime startTimestamp = DateTime.now();
     private DateTime endTimestamp;
 
-    private final AtomicInteger errorCount = new AtomicInteger(0);
-    private final AtomicInteger responseCount = new AtomicInteger(0);
+    @Getter(AccessLevel.NONE) private final AtomicInteger errorCount = new AtomicInteger(0);
+    @Getter(AccessLevel.NONE) private final AtomicInteger responseCount = new AtomicInteger(0);
+
+    // Number of charge points the request is sent to. Shows the progress of sending for large selections.
+    @Getter(AccessLevel.NONE) private final AtomicInteger sentCount = new AtomicInteger(0);
 
     @Getter(AccessLevel.NONE) // disable getter generation
     private final Object lockObject = new Object();
@@ -98,12 +101,35 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
         callbackList.add(cb);
     }
 
+    @Override
     public boolean isFinished() {
         synchronized (lockObject) {
             return endTimestamp != null;
         }
     }
 
+    @Override
+    public int getSentCount() {
+        return sentCount.get();
+    }
+
+    @Override
+    public int getResponseCount() {
+        return responseCount.get();
+    }
+
+    @Override
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * To be called, when the request is handed over to the transport.
+     */
+    public void incrementSentCount() {
+        sentCount.incrementAndGet();
+    }
+
     public void addNewResponse(String chargeBoxId, String response) {
         resultMap.get(chargeBoxId).setResponse(response);
 
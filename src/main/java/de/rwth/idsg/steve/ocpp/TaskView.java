@@ -0,0 +1,47 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp;
+
+import org.joda.time.DateTime;
+
+import java.util.Map;
+
+/**
+ * Read-only properties of a task, which are displayed in the views. Implemented by the task itself and by the summary
+ * that replaces it after it is finished and compacted.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public interface TaskView {
+    OcppVersion getOcppVersion();
+    String getOperationName();
+    TaskOrigin getOrigin();
+    String getCaller();
+
+    DateTime getStartTimestamp();
+    DateTime getEndTimestamp();
+    boolean isFinished();
+
+    int getSentCount();
+    int getResponseCount();
+    int getErrorCount();
+
+    Map<String, RequestResult> getResultMap();
+}
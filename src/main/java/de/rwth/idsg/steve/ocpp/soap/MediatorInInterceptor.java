@@ -21,7 +21,6 @@ package de.rwth.idsg.steve.ocpp.soap;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.cxf.Bus;
 import org.apache.cxf.binding.soap.SoapMessage;
-import org.apache.cxf.binding.soap.SoapVersion;
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.endpoint.ServerRegistry;
 import org.apache.cxf.interceptor.StaxInInterceptor;
@@ -29,12 +28,8 @@ import org.apache.cxf.message.Message;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
 import org.apache.cxf.service.model.EndpointInfo;
-import org.apache.cxf.staxutils.DepthXMLStreamReader;
-import org.apache.cxf.staxutils.StaxUtils;
 
-import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,16 +41,21 @@ import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
 /**
  * Taken from http://cxf.apache.org/docs/service-routing.html and modified.
+ *
+ * Routes the messages of the router endpoint to the service of the OCPP version, see {@link NamespaceSniffer}.
+ * Stations that use the endpoint of their version (e.g. /CentralSystemServiceOCPP16) skip this completely.
  */
 @Slf4j
 public class MediatorInInterceptor extends AbstractPhaseInterceptor<SoapMessage> {
 
     private final Map<String, Server> actualServers;
+    private final NamespaceSniffer sniffer;
 
     public MediatorInInterceptor(Bus bus) {
         super(Phase.POST_STREAM);
         super.addBefore(StaxInInterceptor.class.getName());
         actualServers = initServerLookupMap(bus);
+        sniffer = new NamespaceSniffer(actualServers.keySet());
     }
 
     public final void handleMessage(SoapMessage message) {
@@ -65,23 +65,10 @@ public class MediatorInInterceptor extends AbstractPhaseInterceptor<SoapMessage>
         try {
             // Create a buffered stream so that we get back the original stream after scanning
             InputStream is = message.getContent(InputStream.class);
-            BufferedInputStream bis = new BufferedInputStream(is);
-            bis.mark(bis.available());
+            BufferedInputStream bis = new BufferedInputStream(is, NamespaceSniffer.SCAN_LIMIT);
             message.setContent(InputStream.class, bis);
 
-            String encoding = (String) message.get(Message.ENCODING);
-            XMLStreamReader reader = StaxUtils.createXMLStreamReader(bis, encoding);
-            DepthXMLStreamReader xmlReader = new DepthXMLStreamReader(reader);
-
-            if (xmlReader.nextTag() == XMLStreamConstants.START_ELEMENT) {
-                SoapVersion soapVersion = message.getVersion();
-                // Advance just past header
-                StaxUtils.toNextTag(xmlReader, soapVersion.getBody());
-                // Past body
-                xmlReader.nextTag();
-            }
-            schemaNamespace = xmlReader.getName().getNamespaceURI();
-            bis.reset();
+            schemaNamespace = sniffer.sniff(bis, (String) message.get(Message.ENCODING), message.getVersion());
 
         } catch (IOException | XMLStreamException ex) {
             log.error("Exception happened", ex);
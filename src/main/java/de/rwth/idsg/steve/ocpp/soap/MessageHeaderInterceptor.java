@@ -41,7 +41,6 @@ import org.springframework.stereotype.Component;
 
 import javax.xml.namespace.QName;
 import java.util.Optional;
-import java.util.concurrent.ScheduledExecutorService;
 
 import static org.apache.cxf.ws.addressing.JAXWSAConstants.ADDRESSING_PROPERTIES_INBOUND;
 
@@ -62,7 +61,6 @@ public class MessageHeaderInterceptor extends AbstractPhaseInterceptor<Message>
 
     @Autowired private OcppServerRepository ocppServerRepository;
     @Autowired private ChargePointHelperService chargePointHelperService;
-    @Autowired private ScheduledExecutorService executorService;
 
     private static final String BOOT_OPERATION_NAME = "BootNotification";
     private static final String CHARGEBOX_ID_HEADER = "ChargeBoxIdentity";
@@ -93,16 +91,15 @@ public class MessageHeaderInterceptor extends AbstractPhaseInterceptor<Message>
         // 2. update endpoint
         // -------------------------------------------------------------------------
 
-        executorService.execute(() -> {
-            try {
-                String endpointAddress = getEndpointAddress(message);
-                if (endpointAddress != null) {
-                    ocppServerRepository.updateEndpointAddress(chargeBoxId, endpointAddress);
-                }
-            } catch (Exception e) {
-                log.error("Exception occurred", e);
+        // cheap: the address is compared with the known one in memory and written (async) only when it changes
+        try {
+            String endpointAddress = getEndpointAddress(message);
+            if (endpointAddress != null) {
+                ocppServerRepository.updateEndpointAddress(chargeBoxId, endpointAddress);
             }
-        });
+        } catch (Exception e) {
+            log.error("Exception occurred", e);
+        }
     }
 
     private String getChargeBoxId(Message message) {
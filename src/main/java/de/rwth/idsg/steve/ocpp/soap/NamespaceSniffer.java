@@ -0,0 +1,142 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.soap;
+
+import org.apache.cxf.binding.soap.SoapVersion;
+import org.apache.cxf.staxutils.DepthXMLStreamReader;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Finds the OCPP namespace of an incoming SOAP message, in order to route it to the service of the OCPP version.
+ *
+ * The cheap way is a byte-level scan of the beginning of the message for the known namespace URIs: the namespace of
+ * the OCPP version is declared in the envelope, the chargeBoxIdentity header or the body, and a station does not use
+ * the namespaces of other versions. Only if the scan does not find exactly one namespace (e.g. because of a non-ASCII
+ * compatible encoding or very long headers), the message is parsed up to the first child of the body.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+final class NamespaceSniffer {
+
+    // Typical messages (including the WS-Addressing headers) are smaller, and the namespace is declared at the start
+    static final int SCAN_LIMIT = 4096;
+
+    private final List<String> namespaces;
+    private final List<byte[]> patterns;
+
+    NamespaceSniffer(Collection<String> namespaces) {
+        this.namespaces = List.copyOf(namespaces);
+        this.patterns = this.namespaces.stream()
+                                       .map(s -> s.getBytes(UTF_8))
+                                       .collect(Collectors.toList());
+    }
+
+    /**
+     * Scans the first SCAN_LIMIT bytes and falls back to parsing the message. Either way, the stream is reset
+     * afterwards, so that the message can be read again from the start.
+     */
+    String sniff(BufferedInputStream bis, String encoding, SoapVersion soapVersion)
+            throws IOException, XMLStreamException {
+
+        // 1. Cheap: scan the bytes at the beginning of the message
+        bis.mark(SCAN_LIMIT);
+        byte[] head = new byte[SCAN_LIMIT];
+        int length = bis.readNBytes(head, 0, SCAN_LIMIT);
+        bis.reset();
+
+        String namespace = scan(head, length);
+        if (namespace != null) {
+            return namespace;
+        }
+
+        // 2. Expensive: parse the message up to the first child of the body
+        bis.mark(Integer.MAX_VALUE);
+        namespace = parse(bis, encoding, soapVersion);
+        bis.reset();
+        return namespace;
+    }
+
+    /**
+     * @return the only known namespace which occurs in the first length bytes, or null if there is none or more than
+     *         one
+     */
+    @Nullable
+    String scan(byte[] buffer, int length) {
+        String found = null;
+        for (int i = 0; i < patterns.size(); i++) {
+            if (indexOf(buffer, length, patterns.get(i)) >= 0) {
+                if (found != null) {
+                    return null;
+                }
+                found = namespaces.get(i);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Parses the message up to the first child of the body and returns its namespace. The caller has to reset the
+     * stream afterwards.
+     */
+    static String parse(InputStream is, String encoding, SoapVersion soapVersion) throws XMLStreamException {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(is, encoding);
+        DepthXMLStreamReader xmlReader = new DepthXMLStreamReader(reader);
+
+        if (xmlReader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            // Advance just past header
+            StaxUtils.toNextTag(xmlReader, soapVersion.getBody());
+            // Past body
+            xmlReader.nextTag();
+        }
+        return xmlReader.getName().getNamespaceURI();
+    }
+
+    private static int indexOf(byte[] buffer, int length, byte[] pattern) {
+        int last = length - pattern.length;
+        for (int i = 0; i <= last; i++) {
+            if (buffer[i] == pattern[0] && matchesAt(buffer, i, pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matchesAt(byte[] buffer, int offset, byte[] pattern) {
+        for (int j = 1; j < pattern.length; j++) {
+            if (buffer[offset + j] != pattern[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -19,11 +19,11 @@
 package de.rwth.idsg.steve.ocpp.ws;
 
 import com.google.common.base.Strings;
-import de.rwth.idsg.steve.config.WebSocketConfiguration;
 import de.rwth.idsg.steve.ocpp.OcppTransport;
 import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLiveness;
 import de.rwth.idsg.steve.ocpp.ws.pipeline.IncomingPipeline;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.service.notification.OcppStationWebSocketConnected;
@@ -44,9 +44,6 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -55,10 +52,11 @@ import java.util.function.Consumer;
  */
 public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandler implements SubProtocolCapable {
 
-    @Autowired private ScheduledExecutorService service;
+    @Autowired private PingTimerWheel pingTimerWheel;
     @Autowired private OcppServerRepository ocppServerRepository;
     @Autowired private FutureResponseContextStore futureResponseContextStore;
     @Autowired private ApplicationEventPublisher applicationEventPublisher;
+    @Autowired private StationMessageExecutor stationMessageExecutor;
 
     public static final String CHARGEBOX_ID_KEY = "CHARGEBOX_ID_KEY";
 
@@ -114,11 +112,12 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
         CommunicationContext context = new CommunicationContext(session, chargeBoxId);
         context.setIncomingString(incomingString);
 
-        pipeline.accept(context);
+        stationMessageExecutor.execute(chargeBoxId, session, () -> pipeline.accept(context));
     }
 
     private void handlePongMessage(WebSocketSession session) {
         WebSocketLogger.receivedPong(getChargeBoxId(session), session);
+        pingTimerWheel.pongReceived(session);
         ocppServerRepository.updateChargeboxHeartbeat(getChargeBoxId(session), DateTime.now());
     }
 
@@ -129,13 +128,9 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
         WebSocketLogger.connected(chargeBoxId, session);
         ocppServerRepository.updateOcppProtocol(chargeBoxId, getVersion().toProtocol(OcppTransport.JSON));
 
-        // Just to keep the connection alive, such that the servers do not close
-        // the connection because of a idle timeout, we ping-pong at fixed intervals.
-        ScheduledFuture pingSchedule = service.scheduleAtFixedRate(
-                new PingTask(chargeBoxId, session),
-                WebSocketConfiguration.PING_INTERVAL,
-                WebSocketConfiguration.PING_INTERVAL,
-                TimeUnit.MINUTES);
+        // Just to keep the connection alive, such that the servers do not close the connection because of a idle
+        // timeout, and to detect dead connections, we ping-pong at fixed intervals.
+        SessionLiveness liveness = pingTimerWheel.register(chargeBoxId, session, this::closeDeadSession);
 
         futureResponseContextStore.addSession(session);
 
@@ -143,7 +138,7 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
 
         synchronized (sessionContextLock) {
             sizeBeforeAdd = sessionContextStore.getSize(chargeBoxId);
-            sessionContextStore.add(chargeBoxId, session, pingSchedule);
+            sessionContextStore.add(chargeBoxId, session, liveness);
         }
 
         // Take into account that there might be multiple connections to a charging station.
@@ -159,20 +154,7 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
 
         WebSocketLogger.closed(chargeBoxId, session, closeStatus);
 
-        futureResponseContextStore.removeSession(session);
-
-        int sizeAfterRemove;
-
-        synchronized (sessionContextLock) {
-            sessionContextStore.remove(chargeBoxId, session);
-            sizeAfterRemove = sessionContextStore.getSize(chargeBoxId);
-        }
-
-        // Take into account that there might be multiple connections to a charging station.
-        // Send notification only for the change 1 -> 0.
-        if (sizeAfterRemove == 0) {
-            disconnectedCallbackList.forEach(consumer -> consumer.accept(chargeBoxId));
-        }
+        removeSession(chargeBoxId, session);
     }
 
     @Override
@@ -189,6 +171,40 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
     // Helpers
     // -------------------------------------------------------------------------
 
+    /**
+     * Called by the ping timer wheel for sessions that missed too many pongs. The transport might not report the
+     * closing of a half-open connection for a long time, therefore we do not wait for onClose and evict right away.
+     */
+    private void closeDeadSession(WebSocketSession session) {
+        String chargeBoxId = getChargeBoxId(session);
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE.withReason("Missed pongs"));
+        } catch (Exception e) {
+            WebSocketLogger.transportError(chargeBoxId, session, e);
+        }
+        removeSession(chargeBoxId, session);
+    }
+
+    private void removeSession(String chargeBoxId, WebSocketSession session) {
+        pingTimerWheel.unregister(session);
+        futureResponseContextStore.removeSession(session);
+
+        boolean removed;
+        int sizeAfterRemove;
+
+        synchronized (sessionContextLock) {
+            removed = sessionContextStore.remove(chargeBoxId, session);
+            sizeAfterRemove = sessionContextStore.getSize(chargeBoxId);
+        }
+
+        // Take into account that there might be multiple connections to a charging station.
+        // Send notification only for the change 1 -> 0, and only once for an evicted session.
+        if (removed && sizeAfterRemove == 0) {
+            stationMessageExecutor.stationDisconnected(chargeBoxId);
+            disconnectedCallbackList.forEach(consumer -> consumer.accept(chargeBoxId));
+        }
+    }
+
     protected String getChargeBoxId(WebSocketSession session) {
         return (String) session.getAttributes().get(CHARGEBOX_ID_KEY);
     }
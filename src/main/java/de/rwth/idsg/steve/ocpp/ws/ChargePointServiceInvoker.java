@@ -18,6 +18,7 @@
  */
 package de.rwth.idsg.steve.ocpp.ws;
 
+import com.google.common.cache.CacheBuilder;
 import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.CommunicationTask;
@@ -26,11 +27,14 @@ import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
 import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
 import de.rwth.idsg.steve.ocpp.ws.pipeline.OutgoingCallPipeline;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Serializer;
 import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
+import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -44,6 +48,12 @@ public class ChargePointServiceInvoker {
     private final AbstractWebSocketEndpoint endpoint;
     private final TypeStore typeStore;
 
+    // The request of a task and its JSON are the same for all selected stations. Therefore, they are created only
+    // once per task and not for every station. Weak keys (with identity comparison), since the tasks are dropped
+    // eventually.
+    private final ConcurrentMap<CommunicationTask, PreparedCall> preparedCalls =
+            CacheBuilder.newBuilder().weakKeys().<CommunicationTask, PreparedCall>build().asMap();
+
     /**
      * Just a wrapper to make try-catch block and exception handling stand out
      */
@@ -51,6 +61,7 @@ public class ChargePointServiceInvoker {
         String chargeBoxId = cps.getChargeBoxId();
         try {
             run(chargeBoxId, task);
+            task.incrementSentCount();
         } catch (Exception e) {
             log.error("Exception occurred", e);
             // Outgoing call failed due to technical problems. Pass the exception to handler to inform the user
@@ -62,19 +73,16 @@ public class ChargePointServiceInvoker {
      * Actual processing
      */
     private void run(String chargeBoxId, CommunicationTask task) {
-        RequestType request = task.getRequest();
-
-        ActionResponsePair pair = typeStore.findActionResponse(request);
-        if (pair == null) {
-            throw new SteveException("Action name is not found");
-        }
+        PreparedCall prepared = preparedCalls.computeIfAbsent(task, this::prepare);
+        ActionResponsePair pair = prepared.pair;
 
         OcppJsonCall call = new OcppJsonCall();
         call.setMessageId(UUID.randomUUID().toString());
-        call.setPayload(request);
+        call.setPayload(prepared.request);
+        call.setSerializedPayload(prepared.serializedPayload);
         call.setAction(pair.getAction());
 
-        FutureResponseContext frc = new FutureResponseContext(task, pair.getResponseClass());
+        FutureResponseContext frc = new FutureResponseContext(task, pair.getResponseClass(), chargeBoxId);
 
         CommunicationContext context = new CommunicationContext(endpoint.getSession(chargeBoxId), chargeBoxId);
         context.setOutgoingMessage(call);
@@ -82,4 +90,22 @@ public class ChargePointServiceInvoker {
 
         outgoingCallPipeline.accept(context);
     }
+
+    private PreparedCall prepare(CommunicationTask task) {
+        RequestType request = task.getRequest();
+
+        ActionResponsePair pair = typeStore.findActionResponse(request);
+        if (pair == null) {
+            throw new SteveException("Action name is not found");
+        }
+
+        return new PreparedCall(request, pair, Serializer.INSTANCE.serializePayload(request));
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static class PreparedCall {
+        private final RequestType request;
+        private final ActionResponsePair pair;
+        private final String serializedPayload;
+    }
 }
@@ -18,21 +18,33 @@
  */
 package de.rwth.idsg.steve.ocpp.ws;
 
+import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.WebSocketSession;
 
+import javax.annotation.PostConstruct;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 
+import static de.rwth.idsg.steve.config.WebSocketConfiguration.RESPONSE_TIMEOUT;
+
 /**
  * Presumption: The responses must be sent using the same connection as the requests!
  *
+ * A call that is not answered within {@link de.rwth.idsg.steve.config.WebSocketConfiguration#RESPONSE_TIMEOUT}
+ * is removed by a periodic sweep and reported to its task as an error. Otherwise, the context would stay in memory
+ * as long as the connection is open and the task would never finish.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 21.03.2015
  */
@@ -44,13 +56,39 @@ public class FutureResponseContextStore {
     // (session, (messageId, context))
     private final Map<WebSocketSession, Map<String, FutureResponseContext>> lookupTable = new ConcurrentHashMap<>();
 
+    private final AtomicLong timeoutCount = new AtomicLong(0);
+
+    @Autowired private ScheduledExecutorService executorService;
+
+    private static final long SWEEP_INTERVAL_IN_SECONDS = 10;
+
+    @PostConstruct
+    public void init() {
+        executorService.scheduleWithFixedDelay(
+                this::sweepExpired,
+                SWEEP_INTERVAL_IN_SECONDS,
+                SWEEP_INTERVAL_IN_SECONDS,
+                TimeUnit.SECONDS
+        );
+    }
+
     public void addSession(WebSocketSession session) {
         addIfAbsent(session);
     }
 
     public void removeSession(WebSocketSession session) {
         log.debug("Deleting the store for sessionId '{}'", session.getId());
-        lookupTable.remove(session);
+        Map<String, FutureResponseContext> map = lookupTable.remove(session);
+        if (map == null) {
+            return;
+        }
+
+        // the responses cannot arrive anymore, since they must use the same connection
+        for (Map.Entry<String, FutureResponseContext> entry : map.entrySet()) {
+            if (map.remove(entry.getKey(), entry.getValue())) {
+                fail(entry.getValue(), "Connection closed before a response was received");
+            }
+        }
     }
 
     public void add(WebSocketSession session, String messageId, FutureResponseContext context) {
@@ -66,6 +104,58 @@ public class FutureResponseContextStore {
         return removeFunction.removedContext;
     }
 
+    /**
+     * Number of calls which are sent to the stations and wait for a response
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (Map<String, FutureResponseContext> map : lookupTable.values()) {
+            count += map.size();
+        }
+        return count;
+    }
+
+    /**
+     * Number of calls which were not answered in time since the application start
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    private void sweepExpired() {
+        try {
+            long deadline = System.currentTimeMillis() - RESPONSE_TIMEOUT.toMillis();
+
+            for (Map<String, FutureResponseContext> map : lookupTable.values()) {
+                for (Map.Entry<String, FutureResponseContext> entry : map.entrySet()) {
+                    FutureResponseContext context = entry.getValue();
+                    if (context.getCreatedAtMillis() > deadline) {
+                        continue;
+                    }
+
+                    // if the response arrives at the same time, only one of the two removes the context
+                    if (map.remove(entry.getKey(), context)) {
+                        timeoutCount.incrementAndGet();
+                        fail(context, String.format("No response received within %s seconds",
+                                RESPONSE_TIMEOUT.getSeconds()));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to sweep the expired response contexts", e);
+        }
+    }
+
+    private static void fail(FutureResponseContext context, String message) {
+        log.warn("Call '{}' of chargeBoxId '{}' failed: {}", context.getTask().getOperationName(),
+                context.getChargeBoxId(), message);
+        try {
+            context.getTask().defaultCallback().failed(context.getChargeBoxId(), new SteveException(message));
+        } catch (Exception e) {
+            log.error("Exception occurred in OcppCallback", e);
+        }
+    }
+
     private Map<String, FutureResponseContext> addIfAbsent(WebSocketSession session) {
         return lookupTable.computeIfAbsent(session, innerSession -> {
             log.debug("Creating new store for sessionId '{}'", innerSession.getId());
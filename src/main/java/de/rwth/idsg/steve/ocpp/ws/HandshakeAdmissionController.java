@@ -0,0 +1,192 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.rwth.idsg.steve.utils.TokenBucket;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Limits the WebSocket handshakes, such that a reconnect storm (e.g. after a restart of SteVe or a network outage)
+ * is absorbed over time instead of exhausting the database connections with registration lookups. A handshake has to
+ * pass
+ *
+ * 1) the cap on handshakes in progress (ws.handshake.max.concurrent),
+ * 2) the token bucket of its IP address (ws.handshake.rate.per.ip), and
+ * 3) the global token bucket (ws.handshake.rate).
+ *
+ * Otherwise, it is rejected with a Retry-After, which is randomized to spread the retries of the stations. A rejected
+ * handshake gives back what it took in the earlier steps, so that it does not use up the rate of later handshakes.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Slf4j
+@Component
+public class HandshakeAdmissionController {
+
+    public enum RejectionReason {
+        IP_RATE,
+        GLOBAL_RATE,
+        CONCURRENCY
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Rejection {
+        private final RejectionReason reason;
+        private final int retryAfterSeconds;
+    }
+
+    // Evicting the bucket of an IP address only resets its rate, which is fine for the rare case of so many addresses
+    private static final int MAX_IP_BUCKETS = 10_000;
+
+    private final int ratePerIp;
+    private final int maxConcurrent;
+
+    // null, if disabled
+    private final TokenBucket globalBucket;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Semaphore inProgress;
+
+    // Metrics
+    private final AtomicLong admittedCount = new AtomicLong(0);
+    private final AtomicLong throttledCount = new AtomicLong(0);
+    private final AtomicLong saturatedCount = new AtomicLong(0);
+
+    public HandshakeAdmissionController() {
+        this(CONFIG.getOcpp().getWsHandshakeRate(),
+                CONFIG.getOcpp().getWsHandshakeRatePerIp(),
+                CONFIG.getOcpp().getWsHandshakeMaxConcurrent());
+    }
+
+    HandshakeAdmissionController(int globalRate, int ratePerIp, int maxConcurrent) {
+        this.ratePerIp = ratePerIp;
+        this.maxConcurrent = maxConcurrent;
+
+        // allow a burst of one second worth of handshakes
+        globalBucket = globalRate > 0 ? new TokenBucket(globalRate, globalRate) : null;
+
+        // an idle bucket is full again after one second, so there is no need to keep it any longer
+        ipBuckets = ratePerIp > 0
+                ? CacheBuilder.newBuilder().maximumSize(MAX_IP_BUCKETS).expireAfterAccess(1, TimeUnit.SECONDS).build()
+                : null;
+
+        inProgress = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+    }
+
+    /**
+     * If the result is empty, the handshake is admitted and the caller must call {@link #release()} after it.
+     */
+    public Optional<Rejection> tryAcquire(String remoteAddress) {
+        if (inProgress != null && !inProgress.tryAcquire()) {
+            saturatedCount.incrementAndGet();
+            return Optional.of(reject(RejectionReason.CONCURRENCY, 0));
+        }
+
+        TokenBucket ipBucket = (ipBuckets != null && remoteAddress != null) ? getIpBucket(remoteAddress) : null;
+        if (ipBucket != null) {
+            long waitNanos = ipBucket.tryAcquire();
+            if (waitNanos > 0) {
+                release();
+                throttledCount.incrementAndGet();
+                return Optional.of(reject(RejectionReason.IP_RATE, waitNanos));
+            }
+        }
+
+        if (globalBucket != null) {
+            long waitNanos = globalBucket.tryAcquire();
+            if (waitNanos > 0) {
+                if (ipBucket != null) {
+                    ipBucket.refund();
+                }
+                release();
+                throttledCount.incrementAndGet();
+                return Optional.of(reject(RejectionReason.GLOBAL_RATE, waitNanos));
+            }
+        }
+
+        admittedCount.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void release() {
+        if (inProgress != null) {
+            inProgress.release();
+        }
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount.get();
+    }
+
+    /**
+     * Rejected because of the global or per-IP rate
+     */
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    /**
+     * Rejected because of too many handshakes in progress
+     */
+    public long getSaturatedCount() {
+        return saturatedCount.get();
+    }
+
+    public int getInProgressCount() {
+        return inProgress == null ? 0 : maxConcurrent - inProgress.availablePermits();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private TokenBucket getIpBucket(String remoteAddress) {
+        try {
+            return ipBuckets.get(remoteAddress, () -> new TokenBucket(ratePerIp, ratePerIp));
+        } catch (ExecutionException e) {
+            // cannot happen, since creating a bucket does not throw checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The stations that are rejected at the same time should not come back at the same time, therefore we pick a
+     * random value between the minimum wait and its double.
+     */
+    private static Rejection reject(RejectionReason reason, long waitNanos) {
+        int minSeconds = (int) Math.max(1, Math.ceil((double) waitNanos / TimeUnit.SECONDS.toNanos(1)));
+        int retryAfterSeconds = minSeconds + ThreadLocalRandom.current().nextInt(minSeconds + 1);
+        return new Rejection(reason, retryAfterSeconds);
+    }
+}
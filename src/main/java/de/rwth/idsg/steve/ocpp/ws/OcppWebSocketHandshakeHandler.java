@@ -23,6 +23,7 @@ import de.rwth.idsg.steve.service.ChargePointHelperService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2015._10.RegistrationStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
@@ -34,6 +35,7 @@ import org.springframework.web.socket.server.HandshakeFailureException;
 import org.springframework.web.socket.server.HandshakeHandler;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
+import java.net.InetSocketAddress;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -51,6 +53,7 @@ public class OcppWebSocketHandshakeHandler implements HandshakeHandler {
     private final DefaultHandshakeHandler delegate;
     private final List<AbstractWebSocketEndpoint> endpoints;
     private final ChargePointHelperService chargePointHelperService;
+    private final HandshakeAdmissionController admissionController;
 
     /**
      * We need some WebSocketHandler just for Spring to register it for the path. We will not use it for the actual
@@ -65,6 +68,32 @@ public class OcppWebSocketHandshakeHandler implements HandshakeHandler {
     public boolean doHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                WebSocketHandler wsHandler, Map<String, Object> attributes) throws HandshakeFailureException {
 
+        // -------------------------------------------------------------------------
+        // 0. Admission control, so that a reconnect storm does not overwhelm the database
+        // -------------------------------------------------------------------------
+
+        Optional<HandshakeAdmissionController.Rejection> rejection =
+                admissionController.tryAcquire(getRemoteAddress(request));
+
+        if (rejection.isPresent()) {
+            HandshakeAdmissionController.Rejection r = rejection.get();
+            log.debug("Handshake from '{}' is rejected ({}), retry after {} seconds",
+                    request.getRemoteAddress(), r.getReason(), r.getRetryAfterSeconds());
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(r.getRetryAfterSeconds()));
+            return false;
+        }
+
+        try {
+            return doAdmittedHandshake(request, response, attributes);
+        } finally {
+            admissionController.release();
+        }
+    }
+
+    private boolean doAdmittedHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                        Map<String, Object> attributes) throws HandshakeFailureException {
+
         // -------------------------------------------------------------------------
         // 1. Check the chargeBoxId
         // -------------------------------------------------------------------------
@@ -108,6 +137,14 @@ public class OcppWebSocketHandshakeHandler implements HandshakeHandler {
         return delegate.doHandshake(request, response, endpoint, attributes);
     }
 
+    private static String getRemoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() == null ? address.getHostString() : address.getAddress().getHostAddress();
+    }
+
     private AbstractWebSocketEndpoint selectEndpoint(List<String> requestedProtocols ) {
         for (String requestedProcotol : requestedProtocols) {
             for (AbstractWebSocketEndpoint item : endpoints) {
@@ -0,0 +1,166 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.config.WebSocketConfiguration;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLiveness;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Just to keep the connections alive, such that the servers do not close them because of an idle timeout, we
+ * ping-pong at fixed intervals. Instead of scheduling one task per session, the sessions are hashed into the slots of
+ * a wheel which covers one ping interval. A single task advances the wheel every second and pings the sessions of
+ * the current slot, so that the pings are spread over the interval.
+ *
+ * A session that has not answered its previous ping when its slot comes up again misses a pong. After
+ * ws.ping.max.missed missed pongs in a row the connection is considered dead (e.g. a half-open TCP connection) and
+ * the callback of the endpoint closes and evicts it.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Slf4j
+@Component
+public class PingTimerWheel {
+
+    private static final PingMessage PING_MESSAGE = new PingMessage(ByteBuffer.wrap("ping".getBytes(UTF_8)));
+    private static final long TICK_DURATION_IN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    @Autowired private ScheduledExecutorService executorService;
+
+    // 0 disables the eviction, i.e. sessions are only pinged
+    private final int maxMissedPongs = CONFIG.getOcpp().getWsPingMaxMissed();
+
+    private final List<Set<Entry>> slots;
+    private final Map<String, Entry> entriesBySessionId = new ConcurrentHashMap<>();
+
+    // only accessed by the tick task, which the executor never runs concurrently with itself
+    private long tickCount = 0;
+
+    public PingTimerWheel() {
+        long intervalInMillis = TimeUnit.MINUTES.toMillis(WebSocketConfiguration.PING_INTERVAL);
+        int slotCount = (int) Math.max(1, intervalInMillis / TICK_DURATION_IN_MILLIS);
+
+        slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @PostConstruct
+    private void init() {
+        executorService.scheduleAtFixedRate(
+                this::tick, TICK_DURATION_IN_MILLIS, TICK_DURATION_IN_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public SessionLiveness register(String chargeBoxId, WebSocketSession session,
+                                    Consumer<WebSocketSession> deadSessionCallback) {
+        Entry entry = new Entry(chargeBoxId, session, new SessionLiveness(), deadSessionCallback);
+        entriesBySessionId.put(session.getId(), entry);
+        getSlot(session).add(entry);
+        return entry.liveness;
+    }
+
+    public void unregister(WebSocketSession session) {
+        Entry entry = entriesBySessionId.remove(session.getId());
+        if (entry != null) {
+            getSlot(session).remove(entry);
+        }
+    }
+
+    public void pongReceived(WebSocketSession session) {
+        Entry entry = entriesBySessionId.get(session.getId());
+        if (entry != null) {
+            entry.liveness.pongReceived(System.nanoTime());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private Set<Entry> getSlot(WebSocketSession session) {
+        return slots.get(Math.floorMod(session.getId().hashCode(), slots.size()));
+    }
+
+    private void tick() {
+        Set<Entry> slot = slots.get((int) (tickCount++ % slots.size()));
+
+        for (Entry entry : slot) {
+            try {
+                process(entry);
+            } catch (Exception e) {
+                // do not let it propagate, otherwise the executor stops the subsequent ticks
+                log.error("[chargeBoxId={}, sessionId={}] Failed to process the ping",
+                        entry.chargeBoxId, entry.session.getId(), e);
+            }
+        }
+    }
+
+    private void process(Entry entry) {
+        SessionLiveness liveness = entry.liveness;
+
+        if (liveness.isAwaitingPong()) {
+            int missed = liveness.incrementMissedPongs();
+            if (maxMissedPongs > 0 && missed >= maxMissedPongs) {
+                WebSocketLogger.missedPongs(entry.chargeBoxId, entry.session, missed);
+                unregister(entry.session);
+                entry.deadSessionCallback.accept(entry.session);
+                return;
+            }
+        }
+
+        WebSocketLogger.sendingPing(entry.chargeBoxId, entry.session);
+        liveness.pingSent(System.nanoTime());
+        try {
+            entry.session.sendMessage(PING_MESSAGE);
+        } catch (IOException e) {
+            // the pong will not arrive, which is counted as missed in the next round
+            WebSocketLogger.pingError(entry.chargeBoxId, entry.session, e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final String chargeBoxId;
+        private final WebSocketSession session;
+        private final SessionLiveness liveness;
+        private final Consumer<WebSocketSession> deadSessionCallback;
+    }
+}
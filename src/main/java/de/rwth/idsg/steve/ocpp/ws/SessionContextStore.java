@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.Striped;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategy;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLiveness;
 import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTime;
 import org.springframework.web.socket.WebSocketSession;
@@ -34,7 +35,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.locks.Lock;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
@@ -56,11 +56,11 @@ public class SessionContextStore {
 
     private final WsSessionSelectStrategy wsSessionSelectStrategy = CONFIG.getOcpp().getWsSessionSelectStrategy();
 
-    public void add(String chargeBoxId, WebSocketSession session, ScheduledFuture pingSchedule) {
+    public void add(String chargeBoxId, WebSocketSession session, SessionLiveness liveness) {
         Lock l = locks.get(chargeBoxId);
         l.lock();
         try {
-            SessionContext context = new SessionContext(session, pingSchedule, DateTime.now());
+            SessionContext context = new SessionContext(session, liveness, DateTime.now());
 
             Deque<SessionContext> endpointDeque = lookupTable.computeIfAbsent(chargeBoxId, str -> new ArrayDeque<>());
             endpointDeque.addLast(context); // Adding at the end
@@ -72,14 +72,18 @@ public class SessionContextStore {
         }
     }
 
-    public void remove(String chargeBoxId, WebSocketSession session) {
+    /**
+     * @return true, if the session was stored and is removed by this call. A session that is evicted because of
+     *         missed pongs is removed twice (once when evicted and once when the closing is reported).
+     */
+    public boolean remove(String chargeBoxId, WebSocketSession session) {
         Lock l = locks.get(chargeBoxId);
         l.lock();
         try {
             Deque<SessionContext> endpointDeque = lookupTable.get(chargeBoxId);
             if (endpointDeque == null) {
                 log.debug("No session context to remove for chargeBoxId '{}'", chargeBoxId);
-                return;
+                return false;
             }
 
             // Prevent "java.util.ConcurrentModificationException: null"
@@ -94,20 +98,22 @@ public class SessionContextStore {
                 }
             }
 
-            if (toRemove != null) {
-                // 1. Cancel the ping task
-                toRemove.getPingSchedule().cancel(true);
-                // 2. Delete from collection
-                if (endpointDeque.remove(toRemove)) {
-                    log.debug("A SessionContext is removed for chargeBoxId '{}'. Store size: {}",
-                            chargeBoxId, endpointDeque.size());
-                }
-                // 3. Delete empty collection from lookup table in order to correctly calculate
-                // the number of connected chargeboxes with getNumberOfChargeBoxes()
-                if (endpointDeque.size() == 0) {
-                    lookupTable.remove(chargeBoxId);
-                }
+            if (toRemove == null) {
+                return false;
+            }
+
+            // 1. Delete from collection
+            boolean removed = endpointDeque.remove(toRemove);
+            if (removed) {
+                log.debug("A SessionContext is removed for chargeBoxId '{}'. Store size: {}",
+                        chargeBoxId, endpointDeque.size());
+            }
+            // 2. Delete empty collection from lookup table in order to correctly calculate
+            // the number of connected chargeboxes with getNumberOfChargeBoxes()
+            if (endpointDeque.size() == 0) {
+                lookupTable.remove(chargeBoxId);
             }
+            return removed;
         } finally {
             l.unlock();
         }
@@ -0,0 +1,352 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.utils.ThreadFactories;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Processes the incoming messages of JSON charge points away from the WebSocket (i.e. Jetty) threads, so that slow
+ * database operations of one station cannot block the transport for all others.
+ *
+ * Every station has its own queue, which is processed by at most one worker thread at a time. Therefore, the messages
+ * of a station are processed in the order of arrival, while different stations are processed in parallel. A worker
+ * processes a limited number of messages of a station before it gives the others a turn.
+ *
+ * If the queue of a station is full, the overload policy decides what happens with the message.
+ *
+ * When the station disconnects, the messages that are still queued are skipped (the connection is gone, so the
+ * responses could not be sent anyway, and the station resends unanswered messages) and the queue is removed as soon
+ * as it is drained.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Slf4j
+@Component
+public class StationMessageExecutor {
+
+    public enum OverloadPolicy {
+        /**
+         * Close the connection. The station reconnects and resends the messages that were not answered.
+         */
+        CLOSE_SESSION,
+
+        /**
+         * Drop the message without response. The station will run into its own timeout.
+         */
+        DROP_MESSAGE;
+
+        public static OverloadPolicy fromName(String v) {
+            if (v == null) {
+                return CLOSE_SESSION;
+            }
+            for (OverloadPolicy p : OverloadPolicy.values()) {
+                if (p.name().equalsIgnoreCase(v)) {
+                    return p;
+                }
+            }
+            throw new IllegalArgumentException("Could not find a valid OverloadPolicy for name: " + v);
+        }
+    }
+
+    // Max number of messages of a station to process before continuing with other stations
+    private static final int MAX_MESSAGES_PER_TURN = 16;
+
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 30;
+
+    private final int queueSize;
+    private final int threadCount;
+    private final OverloadPolicy overloadPolicy;
+
+    private final Map<String, StationQueue> queues = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicInteger queuedCount = new AtomicInteger(0);
+    private final AtomicLong processedCount = new AtomicLong(0);
+    private final AtomicLong overloadCount = new AtomicLong(0);
+
+    private ExecutorService workers;
+
+    public StationMessageExecutor() {
+        this(CONFIG.getOcpp().getWsStationQueueSize(),
+                CONFIG.getOcpp().getWsStationQueueThreads(),
+                CONFIG.getOcpp().getWsStationQueueOverloadPolicy());
+    }
+
+    StationMessageExecutor(int queueSize, int threadCount, OverloadPolicy overloadPolicy) {
+        this.queueSize = queueSize;
+        this.threadCount = threadCount;
+        this.overloadPolicy = overloadPolicy;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threadCount, threadCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                ThreadFactories.forBlockingWork("SteVe-Station-%d")
+        );
+        executor.allowCoreThreadTimeOut(true);
+        workers = executor;
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (workers == null) {
+            return;
+        }
+
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Killing non-finished tasks, {} messages are still queued", queuedCount.get());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            log.error("Termination interrupted", e);
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * If disabled, the messages are processed by the WebSocket threads, as they arrive.
+     */
+    public boolean isEnabled() {
+        return queueSize > 0;
+    }
+
+    /**
+     * The task is run on the calling thread, if the executor is disabled.
+     */
+    public void execute(String chargeBoxId, WebSocketSession session, Runnable task) {
+        if (!isEnabled()) {
+            task.run();
+            return;
+        }
+
+        // the offer happens under the lock of the map entry. otherwise, the queue could be removed between our lookup
+        // and offer, and the message would end up in a queue that is not in the map anymore.
+        AtomicBoolean accepted = new AtomicBoolean(false);
+        queues.compute(chargeBoxId, (id, queue) -> {
+            StationQueue q = (queue == null) ? new StationQueue(id) : queue;
+            // the station is connected (again)
+            q.closed = false;
+            accepted.set(q.offer(session, task));
+            return q;
+        });
+
+        if (!accepted.get()) {
+            handleOverload(chargeBoxId, session);
+        }
+    }
+
+    /**
+     * Called when the last connection of the station is closed. The queue is removed right away if it has nothing to
+     * do. Otherwise, it is marked as closed and removed by the worker that drains it. The idle check and the offers of
+     * execute are atomic, since both happen under the lock of the map entry.
+     */
+    public void stationDisconnected(String chargeBoxId) {
+        queues.computeIfPresent(chargeBoxId, (id, queue) -> {
+            queue.closed = true;
+            return queue.isIdle() ? null : queue;
+        });
+    }
+
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    public long getOverloadCount() {
+        return overloadCount.get();
+    }
+
+    /**
+     * The longest queue at the moment, which is the station that we are most behind with
+     */
+    public int getMaxQueueDepth() {
+        int max = 0;
+        for (StationQueue queue : queues.values()) {
+            max = Math.max(max, queue.size.get());
+        }
+        return max;
+    }
+
+    boolean hasQueue(String chargeBoxId) {
+        return queues.containsKey(chargeBoxId);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void handleOverload(String chargeBoxId, WebSocketSession session) {
+        overloadCount.incrementAndGet();
+
+        switch (overloadPolicy) {
+            case CLOSE_SESSION:
+                log.warn("[chargeBoxId={}, sessionId={}] The message queue is full ({} messages). Closing the session",
+                        chargeBoxId, session.getId(), queueSize);
+                close(session, CloseStatus.SERVICE_OVERLOAD);
+                break;
+
+            case DROP_MESSAGE:
+                log.warn("[chargeBoxId={}, sessionId={}] The message queue is full ({} messages). Dropping the message",
+                        chargeBoxId, session.getId(), queueSize);
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown overload policy: " + overloadPolicy);
+        }
+    }
+
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.error("Failed to close the session '{}'", session.getId(), e);
+        }
+    }
+
+    private class StationQueue implements Runnable {
+        private final String chargeBoxId;
+        private final Queue<Message> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger(0);
+
+        // whether this queue is submitted to the workers. guarantees that only one worker processes it at a time
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        // whether the station is disconnected. only modified under the lock of the map entry
+        private volatile boolean closed;
+
+        private StationQueue(String chargeBoxId) {
+            this.chargeBoxId = chargeBoxId;
+        }
+
+        private boolean offer(WebSocketSession session, Runnable task) {
+            if (size.incrementAndGet() > queueSize) {
+                size.decrementAndGet();
+                return false;
+            }
+
+            messages.add(new Message(session, task));
+            queuedCount.incrementAndGet();
+            schedule();
+            return true;
+        }
+
+        private boolean isIdle() {
+            return size.get() == 0 && !scheduled.get();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < MAX_MESSAGES_PER_TURN; i++) {
+                    Message message = messages.poll();
+                    if (message == null) {
+                        break;
+                    }
+                    size.decrementAndGet();
+                    queuedCount.decrementAndGet();
+                    process(message);
+                }
+            } finally {
+                scheduled.set(false);
+                // a message might have been added after the last poll, but before resetting the flag
+                if (!messages.isEmpty()) {
+                    schedule();
+                } else if (closed) {
+                    removeIfIdle();
+                }
+            }
+        }
+
+        private void removeIfIdle() {
+            queues.computeIfPresent(chargeBoxId, (id, queue) -> (queue == this && closed && isIdle()) ? null : queue);
+        }
+
+        /**
+         * An exception would have closed the connection, when the message was processed by the WebSocket thread.
+         * Keep this behaviour.
+         */
+        private void process(Message message) {
+            if (!message.session.isOpen()) {
+                log.debug("[chargeBoxId={}, sessionId={}] The connection is closed. Skipping the message",
+                        chargeBoxId, message.session.getId());
+                return;
+            }
+
+            try {
+                message.task.run();
+            } catch (Exception e) {
+                log.error("[chargeBoxId={}, sessionId={}] Exception occurred while processing the message",
+                        chargeBoxId, message.session.getId(), e);
+                close(message.session, CloseStatus.SERVER_ERROR);
+            } finally {
+                processedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class Message {
+        private final WebSocketSession session;
+        private final Runnable task;
+
+        private Message(WebSocketSession session, Runnable task) {
+            this.session = session;
+            this.task = task;
+        }
+    }
+}
@@ -51,6 +51,10 @@ public final class WebSocketLogger {
         log.debug("[chargeBoxId={}, sessionId={}] Received pong message", chargeBoxId, session.getId());
     }
 
+    public static void missedPongs(String chargeBoxId, WebSocketSession session, int missedPongs) {
+        log.warn("[chargeBoxId={}, sessionId={}] Missed {} pongs in a row. Closing the connection.", chargeBoxId, session.getId(), missedPongs);
+    }
+
     public static void receivedText(String chargeBoxId, WebSocketSession session, String msg) {
         log.info("[chargeBoxId={}, sessionId={}] Received: {}", chargeBoxId, session.getId(), msg);
     }
@@ -34,4 +34,8 @@ import lombok.Setter;
 public class FutureResponseContext {
     private final CommunicationTask task;
     private final Class<? extends ResponseType> responseClass;
+    private final String chargeBoxId;
+
+    // to detect the calls which are never answered
+    private final long createdAtMillis = System.currentTimeMillis();
 }
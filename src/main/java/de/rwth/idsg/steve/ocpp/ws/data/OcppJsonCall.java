@@ -32,6 +32,9 @@ public class OcppJsonCall extends OcppJsonMessage {
     private String action;
     private RequestType payload;
 
+    // If set, it is written as the payload instead of serializing the payload object again
+    private String serializedPayload;
+
     public OcppJsonCall() {
         super(MessageType.CALL);
     }
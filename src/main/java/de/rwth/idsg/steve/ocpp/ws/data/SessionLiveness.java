@@ -0,0 +1,70 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.data;
+
+import lombok.Getter;
+import org.joda.time.DateTime;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ping/pong bookkeeping of one WebSocket session, which is updated by the ping timer wheel and the pong handler.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public class SessionLiveness {
+
+    private final AtomicInteger missedPongs = new AtomicInteger();
+
+    private volatile boolean awaitingPong;
+    private volatile long lastPingNanos;
+
+    // -1 until the first pong arrives
+    @Getter private volatile long roundTripMillis = -1;
+    @Getter private volatile DateTime lastPongAt;
+
+    public void pingSent(long nanos) {
+        lastPingNanos = nanos;
+        awaitingPong = true;
+    }
+
+    public void pongReceived(long nanos) {
+        // stations may send unsolicited pongs, which say nothing about the round trip time
+        if (awaitingPong) {
+            roundTripMillis = TimeUnit.NANOSECONDS.toMillis(nanos - lastPingNanos);
+            awaitingPong = false;
+        }
+        missedPongs.set(0);
+        lastPongAt = DateTime.now();
+    }
+
+    public boolean isAwaitingPong() {
+        return awaitingPong;
+    }
+
+    public int incrementMissedPongs() {
+        return missedPongs.incrementAndGet();
+    }
+
+    public int getMissedPongs() {
+        return missedPongs.get();
+    }
+}
@@ -19,11 +19,11 @@
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.TreeNode;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.ocpp.jaxb.ResponseType;
@@ -43,6 +43,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -57,6 +59,9 @@ public class Deserializer implements Consumer<CommunicationContext> {
 
     private final ObjectMapper mapper = JsonObjectMapper.INSTANCE.getMapper();
 
+    // ObjectReaders are immutable and thread-safe. Creating one per message would look up the deserializer every time.
+    private final Map<Class<?>, ObjectReader> readerCache = new ConcurrentHashMap<>();
+
     private final FutureResponseContextStore futureResponseContextStore;
     private final TypeStore typeStore;
 
@@ -101,6 +106,10 @@ public class Deserializer implements Consumer<CommunicationContext> {
     // Private Helpers
     // -------------------------------------------------------------------------
 
+    private ObjectReader getReader(Class<?> clazz) {
+        return readerCache.computeIfAbsent(clazz, mapper::readerFor);
+    }
+
     /**
      * Catch exceptions and wrap them in outgoing ERRORs for incoming CALLs.
      */
@@ -123,18 +132,17 @@ public class Deserializer implements Consumer<CommunicationContext> {
             return;
         }
 
-        // parse request payload
+        // parse request payload. bind directly from the stream, without building a tree first
         RequestType req;
         try {
-            parser.nextToken();
-            JsonNode requestPayload = parser.readValueAsTree();
+            JsonToken token = parser.nextToken();
 
             // https://github.com/steve-community/steve/issues/1109
-            if (requestPayload instanceof NullNode) {
-                requestPayload = new ObjectNode(JsonNodeFactory.instance);
+            if (token == JsonToken.VALUE_NULL) {
+                req = mapper.treeToValue(new ObjectNode(JsonNodeFactory.instance), clazz);
+            } else {
+                req = getReader(clazz).readValue(parser);
             }
-
-            req = mapper.treeToValue(requestPayload, clazz);
         } catch (IOException e) {
             log.error("Exception occurred", e);
             context.setOutgoingMessage(ErrorFactory.payloadDeserializeError(messageId, e.getMessage()));
@@ -165,8 +173,7 @@ public class Deserializer implements Consumer<CommunicationContext> {
         ResponseType res;
         try {
             parser.nextToken();
-            JsonNode responsePayload = parser.readValueAsTree();
-            res = mapper.treeToValue(responsePayload, responseContext.getResponseClass());
+            res = getReader(responseContext.getResponseClass()).readValue(parser);
         } catch (IOException e) {
             throw new SteveException("Deserialization of incoming response payload failed", e);
         }
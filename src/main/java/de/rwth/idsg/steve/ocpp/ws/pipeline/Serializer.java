@@ -18,10 +18,9 @@
  */
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.ErrorFactory;
 import de.rwth.idsg.steve.ocpp.ws.JsonObjectMapper;
@@ -34,12 +33,16 @@ import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonResult;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.function.Consumer;
 
 /**
  * Outgoing OcppJsonMessage --> String.
  *
- * This class should remain stateless.
+ * The frame is written with a JsonGenerator directly into a pooled buffer, without building a tree of the
+ * message first. Apart from this pool, this class should remain stateless.
  *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 17.03.2015
@@ -50,34 +53,46 @@ public enum Serializer implements Consumer<CommunicationContext> {
 
     private final ObjectMapper mapper = JsonObjectMapper.INSTANCE.getMapper();
 
+    // Not a ThreadLocal: With virtual threads (one per message), every thread would allocate its own buffer, which
+    // is never reused. More buffers than the pool size are only needed under a burst, and are garbage afterwards.
+    private final BlockingQueue<ReusableWriter> writers =
+            new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
     @Override
     public void accept(CommunicationContext context) {
         OcppJsonMessage message = context.getOutgoingMessage();
 
-        ArrayNode str;
+        String result;
         MessageType messageType = message.getMessageType();
         switch (messageType) {
             case CALL:
-                str = handleCall((OcppJsonCall) message);
+                result = handleCall((OcppJsonCall) message);
                 break;
 
             case CALL_RESULT:
-                str = handleResult((OcppJsonResult) message);
+                result = handleResult((OcppJsonResult) message);
                 break;
 
             case CALL_ERROR:
-                str = handleError((OcppJsonError) message);
+                result = handleError((OcppJsonError) message);
                 break;
 
             default:
                 throw new SteveException("Unknown enum type");
         }
 
+        context.setOutgoingString(result);
+    }
+
+    /**
+     * For requests that are sent to many stations: The result can be set as the serialized payload of the calls,
+     * so that only the messageId differs per station.
+     */
+    public String serializePayload(RequestType payload) {
         try {
-            String result = mapper.writeValueAsString(str);
-            context.setOutgoingString(result);
+            return write(gen -> mapper.writeValue(gen, payload));
         } catch (IOException e) {
-            throw new SteveException("The outgoing message could not be serialized", e);
+            throw new SteveException("The payload of the outgoing call could not be converted to JSON", e);
         }
     }
 
@@ -89,43 +104,47 @@ public enum Serializer implements Consumer<CommunicationContext> {
      * Do NOT catch and handle exceptions for outgoing CALLs. Do NOT send the message.
      * Let the processing fail and acknowledge the user.
      */
-    private ArrayNode handleCall(OcppJsonCall call) {
-        JsonNode payloadNode;
+    private String handleCall(OcppJsonCall call) {
         try {
-            payloadNode = mapper.valueToTree(call.getPayload());
-        } catch (IllegalArgumentException e) {
+            return write(gen -> {
+                gen.writeStartArray();
+                gen.writeNumber(call.getMessageType().getTypeNr());
+                gen.writeString(call.getMessageId());
+                gen.writeString(call.getAction());
+                if (call.getSerializedPayload() == null) {
+                    mapper.writeValue(gen, call.getPayload());
+                } else {
+                    gen.writeRawValue(call.getSerializedPayload());
+                }
+                gen.writeEndArray();
+            });
+        } catch (IOException e) {
             throw new SteveException("The payload of the outgoing call could not be converted to JSON", e);
         }
-
-        return mapper.createArrayNode()
-                     .add(call.getMessageType().getTypeNr())
-                     .add(call.getMessageId())
-                     .add(call.getAction())
-                     .add(payloadNode);
     }
 
     /**
      * Catch exceptions and wrap them in outgoing ERRORs for outgoing RESPONSEs.
      */
-    private ArrayNode handleResult(OcppJsonResult result) {
-        JsonNode payloadNode;
+    private String handleResult(OcppJsonResult result) {
         try {
-            payloadNode = mapper.valueToTree(result.getPayload());
-        } catch (IllegalArgumentException e) {
+            return write(gen -> {
+                gen.writeStartArray();
+                gen.writeNumber(result.getMessageType().getTypeNr());
+                gen.writeString(result.getMessageId());
+                mapper.writeValue(gen, result.getPayload());
+                gen.writeEndArray();
+            });
+        } catch (IOException e) {
             log.error("Exception occurred", e);
             return handleError(ErrorFactory.payloadSerializeError(result.getMessageId(), e.getMessage()));
         }
-
-        return mapper.createArrayNode()
-                     .add(result.getMessageType().getTypeNr())
-                     .add(result.getMessageId())
-                     .add(payloadNode);
     }
 
     /**
-     * No exception to catch during serialization, since the fields of the error are simple Strings.
+     * No exception to expect during serialization, since the fields of the error are simple Strings.
      */
-    private ArrayNode handleError(OcppJsonError error) {
+    private String handleError(OcppJsonError error) {
         // From spec:
         // ErrorDescription - Should be filled in if possible, otherwise a clear empty string "".
         String description;
@@ -135,19 +154,105 @@ public enum Serializer implements Consumer<CommunicationContext> {
             description = "";
         }
 
-        // From spec:
-        // ErrorDetails - This JSON object describes error details in an undefined way.
-        // If there are no error details you should fill in an empty object {}, missing or null is not allowed
-        ObjectNode detailsNode = mapper.createObjectNode();
-        if (error.isSetDetails()) {
-            detailsNode.set("errorMsg", mapper.getNodeFactory().textNode(error.toStringErrorDetails()));
+        try {
+            return write(gen -> {
+                gen.writeStartArray();
+                gen.writeNumber(error.getMessageType().getTypeNr());
+                gen.writeString(error.getMessageId());
+                gen.writeString(error.getErrorCode().name());
+                gen.writeString(description);
+
+                // From spec:
+                // ErrorDetails - This JSON object describes error details in an undefined way.
+                // If there are no error details you should fill in an empty object {}, missing or null is not allowed
+                gen.writeStartObject();
+                if (error.isSetDetails()) {
+                    gen.writeStringField("errorMsg", error.toStringErrorDetails());
+                }
+                gen.writeEndObject();
+
+                gen.writeEndArray();
+            });
+        } catch (IOException e) {
+            throw new SteveException("The outgoing message could not be serialized", e);
+        }
+    }
+
+    /**
+     * A failed write leaves partial output in the buffer. Since every buffer is reset before it goes back to the
+     * pool, it is discarded and the buffer can be used again, e.g. for the error that replaces a failed result.
+     */
+    private String write(FrameWriter frameWriter) throws IOException {
+        ReusableWriter writer = writers.poll();
+        if (writer == null) {
+            writer = new ReusableWriter();
         }
 
-        return mapper.createArrayNode()
-                     .add(error.getMessageType().getTypeNr())
-                     .add(error.getMessageId())
-                     .add(error.getErrorCode().name())
-                     .add(description)
-                     .add(detailsNode);
+        try {
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(writer)) {
+                frameWriter.write(gen);
+            }
+            return writer.toString();
+        } finally {
+            // dropped, if the pool is full
+            writer.reset();
+            writers.offer(writer);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FrameWriter {
+        void write(JsonGenerator gen) throws IOException;
+    }
+
+    /**
+     * Unlike StringWriter, it is not synchronized and its buffer can be reused.
+     */
+    private static final class ReusableWriter extends Writer {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        // do not keep the memory of exceptionally large messages (e.g. SendLocalList) for the lifetime of the pool
+        private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+        private StringBuilder sb = new StringBuilder(INITIAL_CAPACITY);
+
+        private void reset() {
+            if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+                sb = new StringBuilder(INITIAL_CAPACITY);
+            } else {
+                sb.setLength(0);
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            sb.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) {
+            sb.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+            // no-op
+        }
+
+        @Override
+        public void close() {
+            // no-op, since the buffer is reused
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
     }
 }
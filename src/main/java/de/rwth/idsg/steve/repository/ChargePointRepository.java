@@ -39,6 +39,12 @@ import java.util.Optional;
 public interface ChargePointRepository {
     Optional<String> getRegistrationStatus(String chargeBoxId);
 
+    /**
+     * Unlike {@link #getRegistrationStatus(String)}, reads the database and not the cache. For decisions that must
+     * not be based on a stale entry, e.g. the auto-registration.
+     */
+    Optional<String> getRegistrationStatusFromDatabase(String chargeBoxId);
+
     List<ChargePointSelect> getChargePointSelect(OcppProtocol protocol, List<String> inStatusFilter, List<String> chargeBoxIdFilter);
 
     default List<ChargePointSelect> getChargePointSelect(OcppProtocol protocol, List<String> inStatusFilter) {
@@ -0,0 +1,48 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-memory lookup of (chargeBoxId, connectorId) -> connector_pk, since almost every OCPP message needs it.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public interface ConnectorPkCache {
+
+    /**
+     * Returns the primary key of the connector. If the connector is new to us, it is inserted into database first.
+     */
+    int getOrInsert(String chargeBoxId, int connectorId);
+
+    /**
+     * Returns the cached primary key, or null if there is none (and without any database access)
+     */
+    @Nullable
+    Integer get(String chargeBoxId, int connectorId);
+
+    /**
+     * Must only be called for connectors that are already committed to database
+     */
+    void put(String chargeBoxId, int connectorId, int connectorPk);
+
+    void invalidate(String chargeBoxId);
+}
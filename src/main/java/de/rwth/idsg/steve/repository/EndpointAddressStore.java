@@ -0,0 +1,41 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-memory table of the endpoint address per SOAP charge box, which is written to database only when it changes.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public interface EndpointAddressStore {
+    void put(String chargeBoxId, String endpointAddress);
+
+    /**
+     * Returns the latest known endpoint address (which might not be written to database yet), or null if there is none
+     */
+    @Nullable
+    String get(String chargeBoxId);
+
+    void invalidate(String chargeBoxId);
+
+    void flush();
+}
@@ -0,0 +1,40 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository;
+
+import org.jetbrains.annotations.Nullable;
+import org.joda.time.DateTime;
+
+/**
+ * In-memory table of the latest heartbeat per charge box, which is written to database periodically.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public interface HeartbeatStore {
+    void put(String chargeBoxId, DateTime ts);
+
+    /**
+     * Returns the heartbeat timestamp that is not written to database yet, or null if there is none
+     */
+    @Nullable
+    DateTime getPending(String chargeBoxId);
+
+    void flush();
+}
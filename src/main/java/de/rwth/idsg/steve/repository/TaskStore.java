@@ -19,6 +19,8 @@
 package de.rwth.idsg.steve.repository;
 
 import de.rwth.idsg.steve.ocpp.CommunicationTask;
+import de.rwth.idsg.steve.ocpp.RequestResult;
+import de.rwth.idsg.steve.ocpp.TaskView;
 import de.rwth.idsg.steve.repository.dto.TaskOverview;
 
 import java.util.List;
@@ -28,8 +30,33 @@ import java.util.List;
  * @since 29.12.2014
  */
 public interface TaskStore {
-    List<TaskOverview> getOverview();
+    /**
+     * Newest tasks first
+     */
+    List<TaskOverview> getOverview(int offset, int limit);
+
+    int size();
+
+    /**
+     * @throws de.rwth.idsg.steve.SteveException if the task does not exist or only its summary is kept
+     */
     CommunicationTask get(Integer taskId);
+
+    /**
+     * Reads the task only once, since it might be compacted at any time.
+     *
+     * @return the task or, if it is finished and compacted, its summary
+     * @throws de.rwth.idsg.steve.SteveException if the task does not exist
+     */
+    TaskView getTaskOrSummary(Integer taskId);
+
+    /**
+     * Works for compacted tasks as well, since their summaries keep the details of the results.
+     *
+     * @throws de.rwth.idsg.steve.SteveException if the task or the result of the charge point does not exist
+     */
+    RequestResult getResult(Integer taskId, String chargeBoxId);
+
     Integer add(CommunicationTask task);
     void clearFinished();
 }
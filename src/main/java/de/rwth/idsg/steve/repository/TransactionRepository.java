@@ -20,7 +20,9 @@ package de.rwth.idsg.steve.repository;
 
 import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
+import de.rwth.idsg.steve.repository.dto.TransactionMeterValueSummary;
 import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Writer;
 import java.util.List;
@@ -32,10 +34,36 @@ import java.util.List;
 public interface TransactionRepository {
     List<Transaction> getTransactions(TransactionQueryForm form);
 
+    /**
+     * The rows are streamed from database to the writer, i.e. the result is not loaded into memory at once
+     */
     void writeTransactionsCSV(TransactionQueryForm form, Writer writer);
 
+    /**
+     * Writes the meter values of the transactions that match the form, which are streamed like the transactions.
+     * Only the meter values that the stations sent with a transaction id are included.
+     */
+    void writeMeterValuesCSV(TransactionQueryForm form, Writer writer);
+
     List<Integer> getActiveTransactionIds(String chargeBoxId);
 
+    /**
+     * Throws an exception, if there is no such transaction
+     */
+    Transaction getTransaction(int transactionPk);
+
+    /**
+     * Returns null if the transaction has no meter values with its transaction id
+     */
+    @Nullable
+    TransactionMeterValueSummary getMeterValueSummary(int transactionPk);
+
+    /**
+     * Returns the idTag that started the transaction, or null if there is no such transaction
+     */
+    @Nullable
+    String getIdTag(int transactionPk);
+
     TransactionDetails getDetails(int transactionPk, boolean firstArrivingMeterValueIfMultiple);
 
     default TransactionDetails getDetails(int transactionPk) {
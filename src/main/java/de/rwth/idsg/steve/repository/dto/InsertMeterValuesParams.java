@@ -16,38 +16,39 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
-package de.rwth.idsg.steve.ocpp.ws;
+package de.rwth.idsg.steve.repository.dto;
 
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.socket.PingMessage;
-import org.springframework.web.socket.WebSocketSession;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+import org.joda.time.DateTime;
 
-import java.io.IOException;
-import java.nio.ByteBuffer;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.List;
 
 /**
+ * Flat representation of the sampled values of a MeterValues message, which is independent of the OCPP version.
+ * Jackson-compatible, because it might be spilled to disk when the ingestion queue is full.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
- * @since 17.03.2015
+ * @since 18.10.2026
  */
-@Slf4j
-@RequiredArgsConstructor
-public class PingTask implements Runnable {
+@Getter
+@Builder
+@Jacksonized
+public class InsertMeterValuesParams {
     private final String chargeBoxId;
-    private final WebSocketSession session;
+    private final int connectorId;
+    private final Integer transactionId;
+    private final List<Value> values;
 
-    private static final PingMessage PING_MESSAGE = new PingMessage(ByteBuffer.wrap("ping".getBytes(UTF_8)));
+    @Getter
+    @Builder
+    @Jacksonized
+    public static class Value {
+        private final DateTime valueTimestamp;
+        private final String value;
 
-    @Override
-    public void run() {
-        WebSocketLogger.sendingPing(chargeBoxId, session);
-        try {
-            session.sendMessage(PING_MESSAGE);
-        } catch (IOException e) {
-            WebSocketLogger.pingError(chargeBoxId, session, e);
-            // TODO: Do something about this
-        }
+        // The following are optional fields!
+        private final String readingContext, format, measurand, location, unit, phase;
     }
 }
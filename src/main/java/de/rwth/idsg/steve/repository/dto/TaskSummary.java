@@ -0,0 +1,83 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.dto;
+
+import de.rwth.idsg.steve.ocpp.CommunicationTask;
+import de.rwth.idsg.steve.ocpp.OcppVersion;
+import de.rwth.idsg.steve.ocpp.RequestResult;
+import de.rwth.idsg.steve.ocpp.TaskOrigin;
+import de.rwth.idsg.steve.ocpp.TaskView;
+import lombok.Builder;
+import lombok.Getter;
+import org.joda.time.DateTime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact form of a finished task. Has the same properties as {@link CommunicationTask} that are displayed, but does
+ * not keep the request params and the responses of the charge points. Only the error messages are kept, and the
+ * details of the responses which have their own view (e.g. GetConfiguration).
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Getter
+@Builder
+public final class TaskSummary implements TaskView {
+    private final OcppVersion ocppVersion;
+    private final String operationName;
+    private final TaskOrigin origin;
+    private final String caller;
+    private final DateTime startTimestamp, endTimestamp;
+    private final int sentCount, responseCount, errorCount;
+    private final Map<String, RequestResult> resultMap;
+
+    @Override
+    public boolean isFinished() {
+        return true;
+    }
+
+    public static TaskSummary from(CommunicationTask<?, ?> task) {
+        Map<String, RequestResult> resultMap = new HashMap<>(task.getResultMap().size());
+        for (Map.Entry<String, RequestResult> entry : task.getResultMap().entrySet()) {
+            RequestResult result = new RequestResult();
+            result.setErrorMessage(entry.getValue().getErrorMessage());
+            Object details = entry.getValue().getDetails();
+            if (details != null) {
+                result.setResponse(entry.getValue().getResponse());
+                result.setDetails(details);
+            }
+            resultMap.put(entry.getKey(), result);
+        }
+
+        return TaskSummary.builder()
+                          .ocppVersion(task.getOcppVersion())
+                          .operationName(task.getOperationName())
+                          .origin(task.getOrigin())
+                          .caller(task.getCaller())
+                          .startTimestamp(task.getStartTimestamp())
+                          .endTimestamp(task.getEndTimestamp())
+                          .sentCount(task.getSentCount())
+                          .responseCount(task.getResponseCount())
+                          .errorCount(task.getErrorCount())
+                          .resultMap(resultMap)
+                          .build();
+    }
+}
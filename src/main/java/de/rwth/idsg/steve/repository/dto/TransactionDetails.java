@@ -44,6 +44,12 @@ public class TransactionDetails {
     @Nullable
     private final TransactionStartRecord nextTransactionStart;
 
+    /**
+     * Does not exist, if the transaction has no meter values with its transaction id
+     */
+    @Nullable
+    private final TransactionMeterValueSummary summary;
+
     @Getter
     @Builder
     public static class MeterValues {
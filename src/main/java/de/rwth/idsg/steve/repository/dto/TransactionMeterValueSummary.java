@@ -0,0 +1,43 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.joda.time.DateTime;
+
+/**
+ * Maintained when the meter values of a transaction are inserted. Only the meter values that are sent with a
+ * transaction id are included. Energy values are in Wh, power values are in W.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Getter
+@Builder
+public class TransactionMeterValueSummary {
+    private final int transactionPk;
+
+    // Energy.Active.Import.Register
+    private final DateTime firstEnergyTimestamp, lastEnergyTimestamp;
+    private final Double firstEnergyValue, lastEnergyValue;
+
+    // Power.Active.Import
+    private final Double maxPowerValue;
+}
@@ -18,10 +18,15 @@
  */
 package de.rwth.idsg.steve.repository.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
 import de.rwth.idsg.steve.repository.AddressRepository;
 import de.rwth.idsg.steve.repository.ChargePointRepository;
+import de.rwth.idsg.steve.repository.ConnectorPkCache;
+import de.rwth.idsg.steve.repository.EndpointAddressStore;
+import de.rwth.idsg.steve.repository.HeartbeatStore;
 import de.rwth.idsg.steve.repository.dto.ChargePoint;
 import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
 import de.rwth.idsg.steve.repository.dto.ConnectorStatus;
@@ -33,6 +38,7 @@ import jooq.steve.db.tables.records.AddressRecord;
 import jooq.steve.db.tables.records.ChargeBoxRecord;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2015._10.RegistrationStatus;
+import org.jetbrains.annotations.Nullable;
 import org.joda.time.DateTime;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
@@ -42,23 +48,27 @@ import org.jooq.Record5;
 import org.jooq.Result;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectQuery;
-import org.jooq.Table;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 import static de.rwth.idsg.steve.utils.CustomDSL.date;
 import static de.rwth.idsg.steve.utils.CustomDSL.includes;
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
 import static jooq.steve.db.tables.Connector.CONNECTOR;
-import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+import static jooq.steve.db.tables.ConnectorStatusLatest.CONNECTOR_STATUS_LATEST;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -70,37 +80,98 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
 
     private final DSLContext ctx;
     private final AddressRepository addressRepository;
+    private final HeartbeatStore heartbeatStore;
+    private final ConnectorPkCache connectorPkCache;
+    private final EndpointAddressStore endpointAddressStore;
+
+    /**
+     * The registration status is read for every WebSocket handshake and for every SOAP message. Unknown chargeBoxIds
+     * are cached as well, but only shortly, since misconfigured stations retry aggressively. The entries are
+     * invalidated when charge points are added, updated or deleted. The expiry is only a safety net for changes that
+     * bypass this repository (e.g. manual changes in database).
+     */
+    private final Cache<String, String> registrationStatusCache =
+            CacheBuilder.newBuilder()
+                        .maximumSize(CONFIG.getOcpp().getRegistrationStatusCacheSize())
+                        .expireAfterWrite(10, TimeUnit.MINUTES)
+                        .build();
+
+    private final Cache<String, Boolean> unknownChargeBoxIdCache =
+            CacheBuilder.newBuilder()
+                        .maximumSize(CONFIG.getOcpp().getRegistrationStatusCacheSize())
+                        .expireAfterWrite(30, TimeUnit.SECONDS)
+                        .build();
+
+    // incremented with every invalidation, such that a lookup which started before it does not cache its stale result
+    private final AtomicLong invalidationCount = new AtomicLong();
 
     @Autowired
-    public ChargePointRepositoryImpl(DSLContext ctx, AddressRepository addressRepository) {
+    public ChargePointRepositoryImpl(DSLContext ctx, AddressRepository addressRepository,
+                                     HeartbeatStore heartbeatStore, ConnectorPkCache connectorPkCache,
+                                     EndpointAddressStore endpointAddressStore) {
         this.ctx = ctx;
         this.addressRepository = addressRepository;
+        this.heartbeatStore = heartbeatStore;
+        this.connectorPkCache = connectorPkCache;
+        this.endpointAddressStore = endpointAddressStore;
     }
 
     @Override
     public Optional<String> getRegistrationStatus(String chargeBoxId) {
-        String status = ctx.select(CHARGE_BOX.REGISTRATION_STATUS)
-                           .from(CHARGE_BOX)
-                           .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
-                           .fetchOne(CHARGE_BOX.REGISTRATION_STATUS);
+        if (unknownChargeBoxIdCache.getIfPresent(chargeBoxId) != null) {
+            return Optional.empty();
+        }
+
+        String status = registrationStatusCache.getIfPresent(chargeBoxId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+
+        long invalidationCountBefore = invalidationCount.get();
+        status = selectRegistrationStatus(chargeBoxId);
+
+        if (status == null) {
+            unknownChargeBoxIdCache.put(chargeBoxId, Boolean.TRUE);
+        } else {
+            registrationStatusCache.put(chargeBoxId, status);
+        }
+
+        // an invalidation in the meantime might have happened before our put. then, our result might be stale, and we
+        // remove it again. an invalidation after this check removes it anyway.
+        if (invalidationCount.get() != invalidationCountBefore) {
+            registrationStatusCache.invalidate(chargeBoxId);
+            unknownChargeBoxIdCache.invalidate(chargeBoxId);
+        }
 
         return Optional.ofNullable(status);
     }
 
+    @Override
+    public Optional<String> getRegistrationStatusFromDatabase(String chargeBoxId) {
+        return Optional.ofNullable(selectRegistrationStatus(chargeBoxId));
+    }
+
     @Override
     public List<ChargePointSelect> getChargePointSelect(OcppProtocol protocol, List<String> inStatusFilter, List<String> chargeBoxIdFilter) {
         Condition chargeBoxIdCondition = CollectionUtils.isEmpty(chargeBoxIdFilter)
             ? DSL.trueCondition()
             : CHARGE_BOX.CHARGE_BOX_ID.in(chargeBoxIdFilter);
 
-        return ctx.select(CHARGE_BOX.CHARGE_BOX_ID, CHARGE_BOX.ENDPOINT_ADDRESS)
-                  .from(CHARGE_BOX)
-                  .where(CHARGE_BOX.OCPP_PROTOCOL.equal(protocol.getCompositeValue()))
-                  .and(CHARGE_BOX.ENDPOINT_ADDRESS.isNotNull())
-                  .and(CHARGE_BOX.REGISTRATION_STATUS.in(inStatusFilter))
-                  .and(chargeBoxIdCondition)
-                  .fetch()
-                  .map(r -> new ChargePointSelect(protocol.getTransport(), r.value1(), r.value2()));
+        // the latest endpoint address is in memory and might not be written to database yet
+        List<ChargePointSelect> returnList = new ArrayList<>();
+        ctx.select(CHARGE_BOX.CHARGE_BOX_ID, CHARGE_BOX.ENDPOINT_ADDRESS)
+           .from(CHARGE_BOX)
+           .where(CHARGE_BOX.OCPP_PROTOCOL.equal(protocol.getCompositeValue()))
+           .and(CHARGE_BOX.REGISTRATION_STATUS.in(inStatusFilter))
+           .and(chargeBoxIdCondition)
+           .fetch()
+           .forEach(r -> {
+               String endpointAddress = getLatestEndpointAddress(r.value1(), r.value2());
+               if (endpointAddress != null) {
+                   returnList.add(new ChargePointSelect(protocol.getTransport(), r.value1(), endpointAddress));
+               }
+           });
+        return returnList;
     }
 
     @Override
@@ -120,16 +191,23 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
 
     @Override
     public List<ChargePoint.Overview> getOverview(ChargePointQueryForm form) {
+        // filtering by heartbeat period happens in database. make sure it includes the pending heartbeats.
+        if (form.getHeartbeatPeriod() != ChargePointQueryForm.QueryPeriodType.ALL) {
+            heartbeatStore.flush();
+        }
+
         return getOverviewInternal(form)
-                .map(r -> ChargePoint.Overview.builder()
-                                              .chargeBoxPk(r.value1())
-                                              .chargeBoxId(r.value2())
-                                              .description(r.value3())
-                                              .ocppProtocol(r.value4())
-                                              .lastHeartbeatTimestampDT(r.value5())
-                                              .lastHeartbeatTimestamp(DateTimeUtils.humanize(r.value5()))
-                                              .build()
-                );
+                .map(r -> {
+                    DateTime lastHeartbeat = getLatestHeartbeat(r.value2(), r.value5());
+                    return ChargePoint.Overview.builder()
+                                               .chargeBoxPk(r.value1())
+                                               .chargeBoxId(r.value2())
+                                               .description(r.value3())
+                                               .ocppProtocol(r.value4())
+                                               .lastHeartbeatTimestampDT(lastHeartbeat)
+                                               .lastHeartbeatTimestamp(DateTimeUtils.humanize(lastHeartbeat))
+                                               .build();
+                });
     }
 
     @SuppressWarnings("unchecked")
@@ -200,6 +278,8 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
             throw new SteveException("Charge point not found");
         }
 
+        cbr.setLastHeartbeatTimestamp(getLatestHeartbeat(cbr.getChargeBoxId(), cbr.getLastHeartbeatTimestamp()));
+
         AddressRecord ar = addressRepository.get(ctx, cbr.getAddressPk());
 
         return new ChargePoint.Details(cbr, ar);
@@ -207,25 +287,8 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
 
     @Override
     public List<ConnectorStatus> getChargePointConnectorStatus(ConnectorStatusForm form) {
-        // find out the latest timestamp for each connector
-        Field<Integer> t1Pk = CONNECTOR_STATUS.CONNECTOR_PK.as("t1_pk");
-        Field<DateTime> t1TsMax = DSL.max(CONNECTOR_STATUS.STATUS_TIMESTAMP).as("t1_ts_max");
-        Table<?> t1 = ctx.select(t1Pk, t1TsMax)
-                         .from(CONNECTOR_STATUS)
-                         .groupBy(CONNECTOR_STATUS.CONNECTOR_PK)
-                         .asTable("t1");
-
-        // get the status table with latest timestamps only
-        Field<Integer> t2Pk = CONNECTOR_STATUS.CONNECTOR_PK.as("t2_pk");
-        Field<DateTime> t2Ts = CONNECTOR_STATUS.STATUS_TIMESTAMP.as("t2_ts");
-        Field<String> t2Status = CONNECTOR_STATUS.STATUS.as("t2_status");
-        Field<String> t2Error = CONNECTOR_STATUS.ERROR_CODE.as("t2_error");
-        Table<?> t2 = ctx.selectDistinct(t2Pk, t2Ts, t2Status, t2Error)
-                         .from(CONNECTOR_STATUS)
-                         .join(t1)
-                            .on(CONNECTOR_STATUS.CONNECTOR_PK.equal(t1.field(t1Pk)))
-                            .and(CONNECTOR_STATUS.STATUS_TIMESTAMP.equal(t1.field(t1TsMax)))
-                         .asTable("t2");
+        // the latest status of each connector is maintained by OcppServerRepository, when a status is inserted.
+        // therefore, we do not need to find it in the whole history.
 
         // https://github.com/steve-community/steve/issues/691
         Condition chargeBoxCondition = CHARGE_BOX.REGISTRATION_STATUS.eq(RegistrationStatus.ACCEPTED.value());
@@ -238,24 +301,24 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
         if (form == null || form.getStatus() == null) {
             statusCondition = DSL.noCondition();
         } else {
-            statusCondition = t2.field(t2Status).eq(form.getStatus());
+            statusCondition = CONNECTOR_STATUS_LATEST.STATUS.eq(form.getStatus());
         }
 
         return ctx.select(
                         CHARGE_BOX.CHARGE_BOX_PK,
                         CONNECTOR.CHARGE_BOX_ID,
                         CONNECTOR.CONNECTOR_ID,
-                        t2.field(t2Ts),
-                        t2.field(t2Status),
-                        t2.field(t2Error),
+                        CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP,
+                        CONNECTOR_STATUS_LATEST.STATUS,
+                        CONNECTOR_STATUS_LATEST.ERROR_CODE,
                         CHARGE_BOX.OCPP_PROTOCOL)
-                  .from(t2)
+                  .from(CONNECTOR_STATUS_LATEST)
                   .join(CONNECTOR)
-                        .on(CONNECTOR.CONNECTOR_PK.eq(t2.field(t2Pk)))
+                        .on(CONNECTOR.CONNECTOR_PK.eq(CONNECTOR_STATUS_LATEST.CONNECTOR_PK))
                   .join(CHARGE_BOX)
                         .on(CHARGE_BOX.CHARGE_BOX_ID.eq(CONNECTOR.CHARGE_BOX_ID))
                   .where(chargeBoxCondition, statusCondition)
-                  .orderBy(t2.field(t2Ts).desc())
+                  .orderBy(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.desc())
                   .fetch()
                   .map(r -> ConnectorStatus.builder()
                                            .chargeBoxPk(r.value1())
@@ -288,11 +351,12 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                                                      .collect(Collectors.toList());
 
         ctx.batchInsert(batch).execute();
+        invalidateCaches(chargeBoxIdList);
     }
 
     @Override
     public int addChargePoint(ChargePointForm form) {
-        return ctx.transactionResult(configuration -> {
+        int chargeBoxPk = ctx.transactionResult(configuration -> {
             DSLContext ctx = DSL.using(configuration);
             try {
                 Integer addressId = addressRepository.updateOrInsert(ctx, form.getAddress());
@@ -303,6 +367,9 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                         form.getChargeBoxId(), e);
             }
         });
+
+        invalidateCaches(Collections.singletonList(form.getChargeBoxId()));
+        return chargeBoxPk;
     }
 
     @Override
@@ -318,10 +385,18 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                         form.getChargeBoxId(), e);
             }
         });
+
+        // the chargeBoxId cannot be changed, but the form might not carry it
+        String chargeBoxId = selectChargeBoxId(form.getChargeBoxPk());
+        if (chargeBoxId != null) {
+            invalidateRegistrationStatus(Collections.singletonList(chargeBoxId));
+        }
     }
 
     @Override
     public void deleteChargePoint(int chargeBoxPk) {
+        String chargeBoxId = selectChargeBoxId(chargeBoxPk);
+
         ctx.transaction(configuration -> {
             DSLContext ctx = DSL.using(configuration);
             try {
@@ -332,12 +407,71 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                 throw new SteveException("Failed to delete the charge point", e);
             }
         });
+
+        // the connectors are deleted with the charge box (on delete cascade)
+        if (chargeBoxId != null) {
+            connectorPkCache.invalidate(chargeBoxId);
+            endpointAddressStore.invalidate(chargeBoxId);
+            invalidateRegistrationStatus(Collections.singletonList(chargeBoxId));
+        }
     }
 
     // -------------------------------------------------------------------------
     // Helpers
     // -------------------------------------------------------------------------
 
+    /**
+     * Read-through for the heartbeats that are not written to database yet
+     */
+    private DateTime getLatestHeartbeat(String chargeBoxId, DateTime fromDb) {
+        DateTime pending = heartbeatStore.getPending(chargeBoxId);
+        if (pending == null) {
+            return fromDb;
+        } else if (fromDb == null) {
+            return pending;
+        } else {
+            return pending.isAfter(fromDb) ? pending : fromDb;
+        }
+    }
+
+    /**
+     * Read-through for the endpoint addresses that are not written to database yet
+     */
+    private String getLatestEndpointAddress(String chargeBoxId, String fromDb) {
+        String known = endpointAddressStore.get(chargeBoxId);
+        return (known == null) ? fromDb : known;
+    }
+
+    private void invalidateRegistrationStatus(List<String> chargeBoxIdList) {
+        invalidationCount.incrementAndGet();
+        registrationStatusCache.invalidateAll(chargeBoxIdList);
+        unknownChargeBoxIdCache.invalidateAll(chargeBoxIdList);
+    }
+
+    /**
+     * For new charge points. An endpoint address might have been received before the station was added (e.g. with a
+     * BootNotification), which was not written then.
+     */
+    private void invalidateCaches(List<String> chargeBoxIdList) {
+        invalidateRegistrationStatus(chargeBoxIdList);
+        chargeBoxIdList.forEach(endpointAddressStore::invalidate);
+    }
+
+    @Nullable
+    private String selectRegistrationStatus(String chargeBoxId) {
+        return ctx.select(CHARGE_BOX.REGISTRATION_STATUS)
+                  .from(CHARGE_BOX)
+                  .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
+                  .fetchOne(CHARGE_BOX.REGISTRATION_STATUS);
+    }
+
+    private String selectChargeBoxId(int chargeBoxPk) {
+        return ctx.select(CHARGE_BOX.CHARGE_BOX_ID)
+                  .from(CHARGE_BOX)
+                  .where(CHARGE_BOX.CHARGE_BOX_PK.eq(chargeBoxPk))
+                  .fetchOne(CHARGE_BOX.CHARGE_BOX_ID);
+    }
+
     private SelectConditionStep<Record1<Integer>> selectAddressId(int chargeBoxPk) {
         return ctx.select(CHARGE_BOX.ADDRESS_PK)
                   .from(CHARGE_BOX)
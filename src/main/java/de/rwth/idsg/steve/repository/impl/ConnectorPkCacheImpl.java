@@ -0,0 +1,133 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.repository.ConnectorPkCache;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+
+/**
+ * Connectors are inserted once (when a station reports them for the first time) and are only deleted together with
+ * their station. Therefore, the mapping never changes and we can keep it in memory. The cache is warmed at startup,
+ * filled when we see a new connector and invalidated when the station is deleted.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class ConnectorPkCacheImpl implements ConnectorPkCache {
+
+    private final boolean enabled = CONFIG.getOcpp().isConnectorPkCacheEnabled();
+
+    private final DSLContext ctx;
+
+    // chargeBoxId -> (connectorId -> connectorPk)
+    private final Map<String, Map<Integer, Integer>> lookupTable = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConnectorPkCacheImpl(DSLContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        ctx.select(CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID, CONNECTOR.CONNECTOR_PK)
+           .from(CONNECTOR)
+           .fetch()
+           .forEach(r -> put(r.value1(), r.value2(), r.value3()));
+
+        log.info("Loaded the primary keys of {} charge boxes' connectors into cache", lookupTable.size());
+    }
+
+    @Override
+    public int getOrInsert(String chargeBoxId, int connectorId) {
+        Integer connectorPk = get(chargeBoxId, connectorId);
+        if (connectorPk != null) {
+            return connectorPk;
+        }
+
+        // not in a transaction on purpose: the connector must be committed before we cache it
+        insertIgnoreConnector(chargeBoxId, connectorId);
+
+        connectorPk = ctx.select(CONNECTOR.CONNECTOR_PK)
+                         .from(CONNECTOR)
+                         .where(CONNECTOR.CHARGE_BOX_ID.equal(chargeBoxId))
+                         .and(CONNECTOR.CONNECTOR_ID.equal(connectorId))
+                         .fetchOne(CONNECTOR.CONNECTOR_PK);
+
+        // the insert is ignored as well, if the charge box does not exist (anymore)
+        if (connectorPk == null) {
+            throw new SteveException("Failed to find the connector %s/%s", chargeBoxId, connectorId);
+        }
+
+        put(chargeBoxId, connectorId, connectorPk);
+        return connectorPk;
+    }
+
+    @Nullable
+    @Override
+    public Integer get(String chargeBoxId, int connectorId) {
+        Map<Integer, Integer> connectors = lookupTable.get(chargeBoxId);
+        return (connectors == null) ? null : connectors.get(connectorId);
+    }
+
+    @Override
+    public void put(String chargeBoxId, int connectorId, int connectorPk) {
+        if (enabled) {
+            lookupTable.computeIfAbsent(chargeBoxId, k -> new ConcurrentHashMap<>())
+                       .put(connectorId, connectorPk);
+        }
+    }
+
+    @Override
+    public void invalidate(String chargeBoxId) {
+        lookupTable.remove(chargeBoxId);
+    }
+
+    /**
+     * If the connector information was not received before, insert it. Otherwise, ignore.
+     */
+    private void insertIgnoreConnector(String chargeBoxIdentity, int connectorId) {
+        int count = ctx.insertInto(CONNECTOR,
+                            CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID)
+                       .values(chargeBoxIdentity, connectorId)
+                       .onDuplicateKeyIgnore() // Important detail
+                       .execute();
+
+        if (count == 1) {
+            log.info("The connector {}/{} is NEW, and inserted into DB.", chargeBoxIdentity, connectorId);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.EndpointAddressStore;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+
+/**
+ * SOAP stations send their endpoint address (the "From" field of the WS-A header) with every message, but it almost
+ * never changes. Therefore, we keep the latest known address per station in memory and write it only when it
+ * changes. The changes are coalesced: at most one flush task is waiting in the executor, and it writes the latest
+ * address of all stations that changed in the meantime.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class EndpointAddressStoreImpl implements EndpointAddressStore {
+
+    private final DSLContext ctx;
+    private final Executor executor;
+
+    // the addresses which are in database or about to be written
+    private final Map<String, String> knownAddresses = new ConcurrentHashMap<>();
+
+    // the changed addresses which are not written yet
+    private final Map<String, String> pendingAddresses = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+
+    @Autowired
+    public EndpointAddressStoreImpl(DSLContext ctx, @Qualifier("scheduledExecutorService") Executor executor) {
+        this.ctx = ctx;
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    public void init() {
+        ctx.select(CHARGE_BOX.CHARGE_BOX_ID, CHARGE_BOX.ENDPOINT_ADDRESS)
+           .from(CHARGE_BOX)
+           .where(CHARGE_BOX.ENDPOINT_ADDRESS.isNotNull())
+           .fetch()
+           .forEach(r -> knownAddresses.put(r.value1(), r.value2()));
+
+        log.info("Loaded the endpoint addresses of {} charge boxes into memory", knownAddresses.size());
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        flushSafely();
+    }
+
+    @Override
+    public void put(String chargeBoxId, String endpointAddress) {
+        String previous = knownAddresses.put(chargeBoxId, endpointAddress);
+        if (endpointAddress.equals(previous)) {
+            return;
+        }
+
+        pendingAddresses.put(chargeBoxId, endpointAddress);
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::runScheduledFlush);
+        }
+    }
+
+    @Nullable
+    @Override
+    public String get(String chargeBoxId) {
+        return knownAddresses.get(chargeBoxId);
+    }
+
+    @Override
+    public void invalidate(String chargeBoxId) {
+        knownAddresses.remove(chargeBoxId);
+        pendingAddresses.remove(chargeBoxId);
+    }
+
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            if (pendingAddresses.isEmpty()) {
+                return;
+            }
+
+            Map<String, String> snapshot = new HashMap<>(pendingAddresses);
+            try {
+                updateEndpointAddresses(snapshot);
+            } catch (RuntimeException e) {
+                // forget these addresses, such that the next message of the station triggers the write again
+                snapshot.forEach(knownAddresses::remove);
+                throw e;
+            } finally {
+                // remove only the values we have handled. if a newer address arrived in the meantime, it stays pending.
+                snapshot.forEach(pendingAddresses::remove);
+            }
+
+            log.debug("Updated the endpoint addresses of {} charge boxes", snapshot.size());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void runScheduledFlush() {
+        // reset before the flush, such that the changes which arrive during the flush schedule the next one
+        flushScheduled.set(false);
+        flushSafely();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to update endpoint addresses", e);
+        }
+    }
+
+    private void updateEndpointAddresses(Map<String, String> addresses) {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(addresses.entrySet());
+
+        List<Query> updates = entries.stream()
+                                     .map(e -> ctx.update(CHARGE_BOX)
+                                                  .set(CHARGE_BOX.ENDPOINT_ADDRESS, e.getValue())
+                                                  .where(CHARGE_BOX.CHARGE_BOX_ID.equal(e.getKey())))
+                                     .collect(Collectors.toList());
+
+        int[] counts = ctx.batch(updates).execute();
+
+        // the station is not in database (yet), e.g. a BootNotification of an unknown station. we must not remember
+        // the address, otherwise it would never be written after the station is added.
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                Map.Entry<String, String> e = entries.get(i);
+                knownAddresses.remove(e.getKey(), e.getValue());
+            }
+        }
+    }
+}
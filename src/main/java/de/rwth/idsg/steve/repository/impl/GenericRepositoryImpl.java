@@ -19,6 +19,7 @@
 package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.repository.GenericRepository;
+import de.rwth.idsg.steve.repository.HeartbeatStore;
 import de.rwth.idsg.steve.repository.ReservationStatus;
 import de.rwth.idsg.steve.repository.dto.DbVersion;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
@@ -51,9 +52,13 @@ import static org.jooq.impl.DSL.select;
 public class GenericRepositoryImpl implements GenericRepository {
 
     @Autowired private DSLContext ctx;
+    @Autowired private HeartbeatStore heartbeatStore;
 
     @Override
     public Statistics getStats() {
+        // the heartbeat counts below are aggregations in database. make sure they include the pending heartbeats.
+        heartbeatStore.flush();
+
         DateTime now = DateTime.now();
         DateTime yesterdaysNow = now.minusDays(1);
 
@@ -124,6 +129,7 @@ public class GenericRepositoryImpl implements GenericRepository {
                          .heartbeatToday(gs.value6())
                          .heartbeatYesterday(gs.value7())
                          .heartbeatEarlier(gs.value8())
+                         .updateTimestamp(DateTimeUtils.humanize(now))
                          .build();
     }
 
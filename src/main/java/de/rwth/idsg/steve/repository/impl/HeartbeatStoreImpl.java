@@ -0,0 +1,170 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.collect.Iterables;
+import de.rwth.idsg.steve.repository.HeartbeatStore;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.joda.time.DateTime;
+import org.jooq.CaseWhenStep;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+
+/**
+ * Heartbeats are the most frequent messages we receive, but the only thing they change is the last heartbeat
+ * timestamp of a station, and nobody cares whether this is a couple of seconds old. Therefore, we keep only the
+ * latest value per station in memory and write all pending values periodically with one UPDATE per batch.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class HeartbeatStoreImpl implements HeartbeatStore {
+
+    // To keep the generated CASE statement (and the number of bind values) at a sane size
+    private static final int BATCH_SIZE = 500;
+
+    private final int flushIntervalInSeconds = CONFIG.getOcpp().getHeartbeatFlushIntervalInSeconds();
+
+    private final DSLContext ctx;
+    private final ScheduledExecutorService executorService;
+
+    private final Map<String, DateTime> lookupTable = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    @Autowired
+    public HeartbeatStoreImpl(DSLContext ctx, ScheduledExecutorService executorService) {
+        this.ctx = ctx;
+        this.executorService = executorService;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (flushIntervalInSeconds > 0) {
+            executorService.scheduleWithFixedDelay(
+                    this::flushSafely,
+                    flushIntervalInSeconds,
+                    flushIntervalInSeconds,
+                    TimeUnit.SECONDS
+            );
+        }
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        flushSafely();
+    }
+
+    @Override
+    public void put(String chargeBoxId, DateTime ts) {
+        if (flushIntervalInSeconds > 0) {
+            lookupTable.merge(chargeBoxId, ts, HeartbeatStoreImpl::latest);
+        } else {
+            updateChargeboxHeartbeats(Map.of(chargeBoxId, ts));
+        }
+    }
+
+    @Nullable
+    @Override
+    public DateTime getPending(String chargeBoxId) {
+        return lookupTable.get(chargeBoxId);
+    }
+
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            if (lookupTable.isEmpty()) {
+                return;
+            }
+
+            Map<String, DateTime> snapshot = new HashMap<>(lookupTable);
+            updateChargeboxHeartbeats(snapshot);
+
+            // remove only the values we have written. if a newer heartbeat arrived in the meantime, it stays pending.
+            snapshot.forEach(lookupTable::remove);
+
+            log.debug("Flushed heartbeats of {} charge boxes", snapshot.size());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // the values stay in the table and we will try again with the next flush
+            log.error("Failed to flush heartbeats", e);
+        }
+    }
+
+    /**
+     * UPDATE charge_box
+     * SET last_heartbeat_timestamp = CASE charge_box_id WHEN 'a' THEN ts1 WHEN 'b' THEN ts2 ... END
+     * WHERE charge_box_id IN ('a', 'b', ...)
+     */
+    private void updateChargeboxHeartbeats(Map<String, DateTime> heartbeats) {
+        List<Map.Entry<String, DateTime>> entries = new ArrayList<>(heartbeats.entrySet());
+
+        for (List<Map.Entry<String, DateTime>> batch : Iterables.partition(entries, BATCH_SIZE)) {
+            CaseWhenStep<String, DateTime> caseStep = null;
+            List<String> chargeBoxIds = new ArrayList<>(batch.size());
+
+            for (Map.Entry<String, DateTime> entry : batch) {
+                String chargeBoxId = entry.getKey();
+                Field<DateTime> ts = DSL.val(entry.getValue(), CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP);
+
+                caseStep = (caseStep == null)
+                        ? DSL.case_(CHARGE_BOX.CHARGE_BOX_ID).when(chargeBoxId, ts)
+                        : caseStep.when(chargeBoxId, ts);
+
+                chargeBoxIds.add(chargeBoxId);
+            }
+
+            ctx.update(CHARGE_BOX)
+               .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, caseStep.otherwise(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP))
+               .where(CHARGE_BOX.CHARGE_BOX_ID.in(chargeBoxIds))
+               .execute();
+        }
+    }
+
+    private static DateTime latest(DateTime oldValue, DateTime newValue) {
+        return newValue.isAfter(oldValue) ? newValue : oldValue;
+    }
+}
@@ -0,0 +1,641 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.google.common.collect.Iterables;
+import de.rwth.idsg.steve.repository.ConnectorPkCache;
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
+import jooq.steve.db.tables.records.ConnectorMeterValueRecord;
+import jooq.steve.db.tables.records.ConnectorRecord;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep10;
+import org.jooq.InsertValuesStep2;
+import org.jooq.Query;
+import org.jooq.Record3;
+import org.jooq.Row2;
+import org.jooq.exception.DataAccessException;
+import org.jooq.exception.SQLStateClass;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
+
+/**
+ * MeterValues are the highest volume messages we receive, but the station does not care about what we do with them.
+ * Therefore, we acknowledge them right away and put them into a bounded queue. A single writer thread drains the
+ * queue and writes the values of all drained messages (across stations) with a few large multi-row INSERTs.
+ *
+ * If the queue is full, there are two options:
+ * 1) If a spill file is configured, the message is appended to it, and the writer reads it back chunk by chunk:
+ * whenever it is idle, and every few batches under sustained load. This survives restarts, and the writer replays
+ * the file even if the queue is disabled (e.g. after the database was not reachable).
+ * 2) Otherwise, the caller thread writes the message itself (as before). This slows down the incoming traffic,
+ * which is the backpressure we want when the database cannot keep up.
+ *
+ * A message that cannot be written because of its data must not take the other messages of the batch down.
+ * Therefore, failed batches are bisected until the bad messages are found, which are then quarantined.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Slf4j
+@Repository
+public class MeterValuesWriter {
+
+    // Number of messages to drain from the queue at once
+    private static final int MAX_DRAIN_SIZE = 1_000;
+
+    // Number of rows per INSERT statement
+    private static final int MAX_ROWS_PER_INSERT = 1_000;
+
+    private static final long POLL_TIMEOUT_IN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final long SHUTDOWN_TIMEOUT_IN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    // Under sustained load, one chunk of the spill file is replayed after this many batches from the queue
+    private static final int REPLAY_EVERY_N_BATCHES = 10;
+
+    private final int queueSize;
+    private final Path spillFile;
+    private final Path processingFile;
+    private final Path offsetFile;
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JodaModule());
+    private final Object spillLock = new Object();
+
+    private final DSLContext ctx;
+    private final ConnectorPkCache connectorPkCache;
+
+    private BlockingQueue<InsertMeterValuesParams> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    // The state of the replay. Only accessed by the writer thread.
+    private BufferedReader replayReader;
+    private long replayLineNumber;
+
+    @Autowired
+    public MeterValuesWriter(DSLContext ctx, ConnectorPkCache connectorPkCache) {
+        this(ctx, connectorPkCache,
+                CONFIG.getOcpp().getMeterValuesQueueSize(),
+                toPath(CONFIG.getOcpp().getMeterValuesSpillPath()));
+    }
+
+    MeterValuesWriter(DSLContext ctx, ConnectorPkCache connectorPkCache, int queueSize, Path spillFile) {
+        this.ctx = ctx;
+        this.connectorPkCache = connectorPkCache;
+        this.queueSize = queueSize;
+        this.spillFile = spillFile;
+        this.processingFile = (spillFile == null) ? null : resolveSibling(spillFile, ".processing");
+        this.offsetFile = (spillFile == null) ? null : resolveSibling(spillFile, ".processing.offset");
+    }
+
+    @PostConstruct
+    public void init() {
+        if (queueSize > 0) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        // Without queue, there is nothing to drain. But messages are still spilled when the database is not
+        // reachable (or were spilled by an earlier run), and someone has to replay them.
+        if (queue == null && spillFile == null) {
+            return;
+        }
+
+        running = true;
+
+        writerThread = new Thread(this::runWriter, "SteVe-MeterValues-Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (writerThread == null) {
+            return;
+        }
+
+        running = false;
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_IN_MILLIS);
+        } catch (InterruptedException e) {
+            log.error("Termination interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+
+        if (!isQueueEmpty()) {
+            log.warn("{} MeterValues messages could not be written before shutdown", queue.size());
+        }
+    }
+
+    public void add(InsertMeterValuesParams params) {
+        List<InsertMeterValuesParams> single = Collections.singletonList(params);
+
+        if (queue == null) {
+            writeOrSpill(single);
+
+        } else if (queue.offer(params)) {
+            // the happy path. the writer thread will take care of it
+
+        } else if (spillFile != null) {
+            spill(single);
+
+        } else {
+            writeOrSpill(single);
+        }
+    }
+
+    public int getQueueSize() {
+        return (queue == null) ? 0 : queue.size();
+    }
+
+    // -------------------------------------------------------------------------
+    // Writer thread
+    // -------------------------------------------------------------------------
+
+    private void runWriter() {
+        int batchesSinceReplay = 0;
+
+        try {
+            while (running || !isQueueEmpty()) {
+                try {
+                    List<InsertMeterValuesParams> batch = pollBatch();
+                    if (batch.isEmpty()) {
+                        // idle: good time to catch up with the values that did not fit into the queue
+                        while (running && isQueueEmpty() && replaySpillChunk()) {
+                            // until the file is done, or new messages arrive
+                        }
+                        batchesSinceReplay = 0;
+                        continue;
+                    }
+
+                    writeOrSpill(batch);
+
+                    // under sustained load, the writer is never idle. interleave the replay with the live traffic,
+                    // such that the spill file is drained nevertheless.
+                    if (++batchesSinceReplay >= REPLAY_EVERY_N_BATCHES) {
+                        batchesSinceReplay = 0;
+                        replaySpillChunk();
+                    }
+
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.error("Exception occurred", e);
+                }
+            }
+        } finally {
+            closeReplay();
+        }
+    }
+
+    /**
+     * @return the next batch from the queue, or an empty list if there was nothing to write for a while
+     */
+    private List<InsertMeterValuesParams> pollBatch() throws InterruptedException {
+        if (queue == null) {
+            // only the spill file to take care of
+            Thread.sleep(POLL_TIMEOUT_IN_MILLIS);
+            return Collections.emptyList();
+        }
+
+        InsertMeterValuesParams first = queue.poll(POLL_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return Collections.emptyList();
+        }
+
+        List<InsertMeterValuesParams> batch = new ArrayList<>(MAX_DRAIN_SIZE);
+        batch.add(first);
+        queue.drainTo(batch, MAX_DRAIN_SIZE - 1);
+        return batch;
+    }
+
+    private boolean isQueueEmpty() {
+        return queue == null || queue.isEmpty();
+    }
+
+    private void writeOrSpill(List<InsertMeterValuesParams> batch) {
+        List<InsertMeterValuesParams> notWritten = writeIsolated(batch);
+        if (notWritten.isEmpty()) {
+            return;
+        }
+
+        if (spillFile == null) {
+            log.error("Failed to write {} MeterValues messages. They are lost.", notWritten.size());
+        } else {
+            log.error("Failed to write {} MeterValues messages. Spilling them to disk.", notWritten.size());
+            spill(notWritten);
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction. If this fails because of the data of some messages (e.g. a transactionId
+     * that does not exist, or a value that is too long), the batch is bisected until these messages are found, such
+     * that they do not take the other messages (of other stations) down. The bad messages are quarantined.
+     *
+     * Other failures (e.g. the database is not reachable) would fail every part as well. Therefore, we stop there and
+     * return the messages that are not written yet.
+     */
+    List<InsertMeterValuesParams> writeIsolated(List<InsertMeterValuesParams> batch) {
+        Deque<List<InsertMeterValuesParams>> pending = new ArrayDeque<>();
+        pending.push(batch);
+
+        while (!pending.isEmpty()) {
+            List<InsertMeterValuesParams> current = pending.pop();
+            try {
+                write(current);
+
+            } catch (RuntimeException e) {
+                if (!isDataError(e)) {
+                    log.error("Failed to write MeterValues messages", e);
+                    List<InsertMeterValuesParams> notWritten = new ArrayList<>(current);
+                    pending.forEach(notWritten::addAll);
+                    return notWritten;
+                }
+
+                if (current.size() == 1) {
+                    quarantine(current.get(0), e);
+                } else {
+                    // the first half is processed first, to keep the order of the messages
+                    int middle = current.size() / 2;
+                    pending.push(current.subList(middle, current.size()));
+                    pending.push(current.subList(0, middle));
+                }
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    private static boolean isDataError(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessException) {
+                SQLStateClass stateClass = ((DataAccessException) cause).sqlStateClass();
+                return stateClass == SQLStateClass.C22_DATA_EXCEPTION
+                        || stateClass == SQLStateClass.C23_INTEGRITY_CONSTRAINT_VIOLATION;
+            }
+        }
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Database
+    // -------------------------------------------------------------------------
+
+    void write(List<InsertMeterValuesParams> batch) {
+        Map<ConnectorKey, Integer> connectorPkLookup = getConnectorPks(batch);
+
+        ctx.transaction(configuration -> {
+            DSLContext ctx = DSL.using(configuration);
+
+            List<ConnectorMeterValueRecord> rows = new ArrayList<>();
+            for (InsertMeterValuesParams p : batch) {
+                Integer connectorPk = connectorPkLookup.get(new ConnectorKey(p.getChargeBoxId(), p.getConnectorId()));
+                for (InsertMeterValuesParams.Value v : p.getValues()) {
+                    rows.add(new ConnectorMeterValueRecord()
+                            .setConnectorPk(connectorPk)
+                            .setTransactionPk(p.getTransactionId())
+                            .setValueTimestamp(v.getValueTimestamp())
+                            .setValue(v.getValue())
+                            .setReadingContext(v.getReadingContext())
+                            .setFormat(v.getFormat())
+                            .setMeasurand(v.getMeasurand())
+                            .setLocation(v.getLocation())
+                            .setUnit(v.getUnit())
+                            .setPhase(v.getPhase()));
+                }
+            }
+
+            for (List<ConnectorMeterValueRecord> chunk : Iterables.partition(rows, MAX_ROWS_PER_INSERT)) {
+                insertMeterValues(ctx, chunk);
+            }
+
+            // keep the summaries of the transactions consistent with their values
+            List<Query> rollups = TransactionMeterValueRollup.toUpserts(ctx, batch);
+            if (!rollups.isEmpty()) {
+                ctx.batch(rollups).execute();
+            }
+
+            log.debug("Wrote {} meter values of {} MeterValues messages", rows.size(), batch.size());
+        });
+    }
+
+    /**
+     * Usually, all connectors are in the cache. Only the missing ones are resolved via database, and since this
+     * happens outside of the transaction of the values, they are committed before we put them into the cache.
+     */
+    private Map<ConnectorKey, Integer> getConnectorPks(List<InsertMeterValuesParams> batch) {
+        Map<ConnectorKey, Integer> lookup = new HashMap<>();
+        Set<ConnectorKey> missing = new LinkedHashSet<>();
+
+        for (InsertMeterValuesParams p : batch) {
+            ConnectorKey key = new ConnectorKey(p.getChargeBoxId(), p.getConnectorId());
+            Integer connectorPk = connectorPkCache.get(key.chargeBoxId, key.connectorId);
+            if (connectorPk == null) {
+                missing.add(key);
+            } else {
+                lookup.put(key, connectorPk);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<ConnectorKey, Integer> resolved = insertIgnoreConnectors(ctx, missing);
+            resolved.forEach((key, connectorPk) -> connectorPkCache.put(key.chargeBoxId, key.connectorId, connectorPk));
+            lookup.putAll(resolved);
+        }
+
+        return lookup;
+    }
+
+    /**
+     * Multi-row version of ConnectorPkCacheImpl.insertIgnoreConnector(..) followed by one lookup of the primary
+     * keys of all these connectors.
+     */
+    private static Map<ConnectorKey, Integer> insertIgnoreConnectors(DSLContext ctx, Set<ConnectorKey> keys) {
+        InsertValuesStep2<ConnectorRecord, String, Integer> insert =
+                ctx.insertInto(CONNECTOR, CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID);
+
+        for (ConnectorKey key : keys) {
+            insert = insert.values(key.chargeBoxId, key.connectorId);
+        }
+
+        int count = insert.onDuplicateKeyIgnore() // Important detail
+                          .execute();
+
+        if (count > 0) {
+            log.info("{} NEW connectors are inserted into DB.", count);
+        }
+
+        List<Row2<String, Integer>> rows = keys.stream()
+                                               .map(key -> DSL.row(key.chargeBoxId, key.connectorId))
+                                               .collect(Collectors.toList());
+
+        return ctx.select(CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID, CONNECTOR.CONNECTOR_PK)
+                  .from(CONNECTOR)
+                  .where(DSL.row(CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID).in(rows))
+                  .fetchMap(r -> new ConnectorKey(r.value1(), r.value2()), Record3::value3);
+    }
+
+    private static void insertMeterValues(DSLContext ctx, List<ConnectorMeterValueRecord> chunk) {
+        InsertValuesStep10<ConnectorMeterValueRecord, Integer, Integer, DateTime, String, String, String, String, String, String, String> insert =
+                ctx.insertInto(CONNECTOR_METER_VALUE,
+                        CONNECTOR_METER_VALUE.CONNECTOR_PK,
+                        CONNECTOR_METER_VALUE.TRANSACTION_PK,
+                        CONNECTOR_METER_VALUE.VALUE_TIMESTAMP,
+                        CONNECTOR_METER_VALUE.VALUE,
+                        CONNECTOR_METER_VALUE.READING_CONTEXT,
+                        CONNECTOR_METER_VALUE.FORMAT,
+                        CONNECTOR_METER_VALUE.MEASURAND,
+                        CONNECTOR_METER_VALUE.LOCATION,
+                        CONNECTOR_METER_VALUE.UNIT,
+                        CONNECTOR_METER_VALUE.PHASE);
+
+        for (ConnectorMeterValueRecord r : chunk) {
+            insert = insert.values(
+                    r.getConnectorPk(),
+                    r.getTransactionPk(),
+                    r.getValueTimestamp(),
+                    r.getValue(),
+                    r.getReadingContext(),
+                    r.getFormat(),
+                    r.getMeasurand(),
+                    r.getLocation(),
+                    r.getUnit(),
+                    r.getPhase()
+            );
+        }
+
+        insert.execute();
+    }
+
+    // -------------------------------------------------------------------------
+    // Spill file
+    // -------------------------------------------------------------------------
+
+    private void spill(List<InsertMeterValuesParams> batch) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (InsertMeterValuesParams p : batch) {
+                    writer.write(mapper.writeValueAsString(p));
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                log.error("Failed to spill {} MeterValues messages to '{}'. They are lost.",
+                        batch.size(), spillFile, e);
+            }
+        }
+    }
+
+    private void quarantine(InsertMeterValuesParams p, Exception e) {
+        String line;
+        try {
+            line = mapper.writeValueAsString(p);
+        } catch (IOException ex) {
+            line = p.toString();
+        }
+        quarantine(line, e);
+    }
+
+    /**
+     * Messages that cannot be written because of their data would fail every retry. Therefore, they are moved to a
+     * separate file (if a spill file is configured), where they can be inspected and fixed manually.
+     */
+    private void quarantine(String line, Exception e) {
+        if (spillFile == null) {
+            log.error("Failed to write the MeterValues message {}. It is dropped.", line, e);
+            return;
+        }
+
+        Path failedFile = resolveSibling(spillFile, ".failed");
+        log.error("Failed to write the MeterValues message {}. It is moved to '{}'.", line, failedFile, e);
+
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(failedFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(line);
+                writer.newLine();
+            } catch (IOException ex) {
+                log.error("Failed to write to '{}'. The message is lost.", failedFile, ex);
+            }
+        }
+    }
+
+    /**
+     * Replays the next chunk of the spill file. We first move the file away, so that new spills (which might happen
+     * while we are busy with the old ones) go into a fresh file.
+     *
+     * The number of lines that are already written is stored in an offset file after every chunk, such that a retry
+     * (after the database was not reachable, or after a restart) continues there instead of writing the previous
+     * chunks again. Only a crash between the commit of a chunk and the update of the offset leads to duplicates.
+     *
+     * @return true, if the chunk was written and there is more to replay
+     */
+    boolean replaySpillChunk() {
+        if (spillFile == null) {
+            return false;
+        }
+
+        try {
+            if (replayReader == null && !openReplay()) {
+                return false;
+            }
+
+            List<InsertMeterValuesParams> batch = new ArrayList<>(MAX_DRAIN_SIZE);
+            String line = null;
+            while (batch.size() < MAX_DRAIN_SIZE && (line = replayReader.readLine()) != null) {
+                replayLineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    batch.add(mapper.readValue(line, InsertMeterValuesParams.class));
+                } catch (IOException e) {
+                    quarantine(line, e);
+                }
+            }
+
+            if (!batch.isEmpty() && !writeIsolated(batch).isEmpty()) {
+                // keep the file and the offset, we will continue there later
+                closeReplay();
+                return false;
+            }
+            writeOffset(offsetFile, replayLineNumber);
+
+            if (line != null) {
+                return true;
+            }
+
+            closeReplay();
+            Files.delete(processingFile);
+            Files.deleteIfExists(offsetFile);
+            log.info("Replayed the spilled MeterValues messages from '{}'", spillFile);
+
+            // values might have been spilled in the meantime
+            return Files.exists(spillFile);
+
+        } catch (Exception e) {
+            // keep the file and the offset, we will try again later
+            log.error("Failed to replay the spill file '{}'", processingFile, e);
+            closeReplay();
+            return false;
+        }
+    }
+
+    /**
+     * @return false, if there is nothing to replay
+     */
+    private boolean openReplay() throws IOException {
+        synchronized (spillLock) {
+            if (Files.notExists(processingFile)) {
+                if (Files.notExists(spillFile)) {
+                    return false;
+                }
+                Files.deleteIfExists(offsetFile);
+                Files.move(spillFile, processingFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        long offset = readOffset(offsetFile);
+
+        replayReader = Files.newBufferedReader(processingFile, StandardCharsets.UTF_8);
+        replayLineNumber = 0;
+        while (replayLineNumber < offset && replayReader.readLine() != null) {
+            replayLineNumber++;
+        }
+        return true;
+    }
+
+    private void closeReplay() {
+        if (replayReader == null) {
+            return;
+        }
+
+        try {
+            replayReader.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the spill file '{}'", processingFile, e);
+        }
+        replayReader = null;
+    }
+
+    private static long readOffset(Path offsetFile) throws IOException {
+        if (Files.notExists(offsetFile)) {
+            return 0;
+        }
+        String content = Files.readString(offsetFile, StandardCharsets.UTF_8).trim();
+        return content.isEmpty() ? 0 : Long.parseLong(content);
+    }
+
+    private static void writeOffset(Path offsetFile, long offset) throws IOException {
+        Path tempFile = resolveSibling(offsetFile, ".tmp");
+        Files.writeString(tempFile, String.valueOf(offset), StandardCharsets.UTF_8);
+        Files.move(tempFile, offsetFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Path toPath(String path) {
+        return (path == null) ? null : Paths.get(path);
+    }
+
+    private static Path resolveSibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class ConnectorKey {
+        private final String chargeBoxId;
+        private final int connectorId;
+    }
+}
@@ -22,9 +22,13 @@ import com.google.common.base.Throwables;
 import com.google.common.util.concurrent.Striped;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
+import de.rwth.idsg.steve.repository.ConnectorPkCache;
+import de.rwth.idsg.steve.repository.EndpointAddressStore;
+import de.rwth.idsg.steve.repository.HeartbeatStore;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.repository.ReservationRepository;
 import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
 import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
 import de.rwth.idsg.steve.repository.dto.TransactionStatusUpdate;
 import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
@@ -38,22 +42,25 @@ import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2015._10.MeterValue;
 import org.joda.time.DateTime;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
 import org.jooq.Record1;
-import org.jooq.SelectConditionStep;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.CollectionUtils;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
-import static jooq.steve.db.tables.Connector.CONNECTOR;
 import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+import static jooq.steve.db.tables.ConnectorStatusLatest.CONNECTOR_STATUS_LATEST;
 import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+import static jooq.steve.db.tables.OcppTagActiveTransaction.OCPP_TAG_ACTIVE_TRANSACTION;
 import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
 import static jooq.steve.db.tables.TransactionStop.TRANSACTION_STOP;
 import static jooq.steve.db.tables.TransactionStopFailed.TRANSACTION_STOP_FAILED;
@@ -72,6 +79,10 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
     @Autowired private DSLContext ctx;
     @Autowired private ReservationRepository reservationRepository;
+    @Autowired private HeartbeatStore heartbeatStore;
+    @Autowired private EndpointAddressStore endpointAddressStore;
+    @Autowired private MeterValuesWriter meterValuesWriter;
+    @Autowired private ConnectorPkCache connectorPkCache;
 
     private final Striped<Lock> transactionTableLocks = Striped.lock(16);
 
@@ -103,10 +114,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
     @Override
     public void updateEndpointAddress(String chargeBoxIdentity, String endpointAddress) {
-        ctx.update(CHARGE_BOX)
-           .set(CHARGE_BOX.ENDPOINT_ADDRESS, endpointAddress)
-           .where(CHARGE_BOX.CHARGE_BOX_ID.equal(chargeBoxIdentity))
-           .execute();
+        endpointAddressStore.put(chargeBoxIdentity, endpointAddress);
     }
 
     @Override
@@ -129,30 +137,23 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
     @Override
     public void updateChargeboxHeartbeat(String chargeBoxIdentity, DateTime ts) {
-        ctx.update(CHARGE_BOX)
-           .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, ts)
-           .where(CHARGE_BOX.CHARGE_BOX_ID.equal(chargeBoxIdentity))
-           .execute();
+        heartbeatStore.put(chargeBoxIdentity, ts);
     }
 
     @Override
     public void insertConnectorStatus(InsertConnectorStatusParams p) {
-        ctx.transaction(configuration -> {
-            DSLContext ctx = DSL.using(configuration);
+        // Step 1: Insert connector, if it is new to us
+        int connectorPk = connectorPkCache.getOrInsert(p.getChargeBoxId(), p.getConnectorId());
 
-            // Step 1
-            insertIgnoreConnector(ctx, p.getChargeBoxId(), p.getConnectorId());
+        // -------------------------------------------------------------------------
+        // Step 2: We store a log of connector statuses and update the latest one
+        // -------------------------------------------------------------------------
 
-            // -------------------------------------------------------------------------
-            // Step 2: We store a log of connector statuses
-            // -------------------------------------------------------------------------
+        ctx.transaction(configuration -> {
+            DSLContext ctx = DSL.using(configuration);
 
             ctx.insertInto(CONNECTOR_STATUS)
-               .set(CONNECTOR_STATUS.CONNECTOR_PK, DSL.select(CONNECTOR.CONNECTOR_PK)
-                                                      .from(CONNECTOR)
-                                                      .where(CONNECTOR.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
-                                                      .and(CONNECTOR.CONNECTOR_ID.equal(p.getConnectorId()))
-               )
+               .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPk)
                .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, p.getTimestamp())
                .set(CONNECTOR_STATUS.STATUS, p.getStatus())
                .set(CONNECTOR_STATUS.ERROR_CODE, p.getErrorCode())
@@ -161,8 +162,11 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
                .set(CONNECTOR_STATUS.VENDOR_ERROR_CODE, p.getVendorErrorCode())
                .execute();
 
-            log.debug("Stored a new connector status for {}/{}.", p.getChargeBoxId(), p.getConnectorId());
+            upsertLatestConnectorStatus(ctx, DSL.val(connectorPk), p.getTimestamp(), p.getStatus(), p.getErrorCode(),
+                    p.getErrorInfo(), p.getVendorId(), p.getVendorErrorCode());
         });
+
+        log.debug("Stored a new connector status for {}/{}.", p.getChargeBoxId(), p.getConnectorId());
     }
 
     @Override
@@ -171,17 +175,19 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
             return;
         }
 
-        ctx.transaction(configuration -> {
-            try {
-                DSLContext ctx = DSL.using(configuration);
+        List<InsertMeterValuesParams.Value> values = toInsertValues(list);
 
-                insertIgnoreConnector(ctx, chargeBoxIdentity, connectorId);
-                int connectorPk = getConnectorPkFromConnector(ctx, chargeBoxIdentity, connectorId);
-                batchInsertMeterValues(ctx, list, connectorPk, transactionId);
-            } catch (Exception e) {
-                log.error("Exception occurred", e);
-            }
-        });
+        if (values.isEmpty()) {
+            return;
+        }
+
+        // the actual insert happens asynchronously in batches
+        meterValuesWriter.add(InsertMeterValuesParams.builder()
+                                                     .chargeBoxId(chargeBoxIdentity)
+                                                     .connectorId(connectorId)
+                                                     .transactionId(transactionId)
+                                                     .values(values)
+                                                     .build());
     }
 
     @Override
@@ -202,6 +208,16 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
                                      .value1();
 
                 batchInsertMeterValues(ctx, list, connectorPk, transactionId);
+
+                // the transactionData of StopTransaction, which must be in the summary of the transaction, as well
+                InsertMeterValuesParams params = InsertMeterValuesParams.builder()
+                                                                        .transactionId(transactionId)
+                                                                        .values(toInsertValues(list))
+                                                                        .build();
+                List<Query> rollups = TransactionMeterValueRollup.toUpserts(ctx, Collections.singletonList(params));
+                if (!rollups.isEmpty()) {
+                    ctx.batch(rollups).execute();
+                }
             } catch (Exception e) {
                 log.error("Exception occurred", e);
             }
@@ -211,17 +227,11 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
     @Override
     public int insertTransaction(InsertTransactionParams p) {
 
-        SelectConditionStep<Record1<Integer>> connectorPkQuery =
-                DSL.select(CONNECTOR.CONNECTOR_PK)
-                   .from(CONNECTOR)
-                   .where(CONNECTOR.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
-                   .and(CONNECTOR.CONNECTOR_ID.equal(p.getConnectorId()));
-
         // -------------------------------------------------------------------------
         // Step 1: Insert connector and idTag, if they are new to us
         // -------------------------------------------------------------------------
 
-        insertIgnoreConnector(ctx, p.getChargeBoxId(), p.getConnectorId());
+        int connectorPk = connectorPkCache.getOrInsert(p.getChargeBoxId(), p.getConnectorId());
 
         // it is important to insert idTag before transaction, since the transaction table references it
         boolean unknownTagInserted = insertIgnoreIdTag(ctx, p);
@@ -230,7 +240,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         // Step 2: Insert transaction if it does not exist already
         // -------------------------------------------------------------------------
 
-        TransactionDataHolder data = insertIgnoreTransaction(p, connectorPkQuery);
+        TransactionDataHolder data = insertIgnoreTransaction(p, connectorPk);
         int transactionId = data.transactionId;
 
         if (data.existsAlready) {
@@ -247,7 +257,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         // -------------------------------------------------------------------------
 
         if (p.isSetReservationId()) {
-            reservationRepository.used(connectorPkQuery, p.getIdTag(), p.getReservationId(), transactionId);
+            reservationRepository.used(connectorPk, p.getIdTag(), p.getReservationId(), transactionId);
         }
 
         // -------------------------------------------------------------------------
@@ -255,7 +265,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         // -------------------------------------------------------------------------
 
         if (shouldInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId())) {
-            insertConnectorStatus(ctx, connectorPkQuery, p.getStartTimestamp(), p.getStatusUpdate());
+            insertConnectorStatus(DSL.val(connectorPk), p.getStartTimestamp(), p.getStatusUpdate());
         }
 
         return transactionId;
@@ -269,18 +279,34 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         // -------------------------------------------------------------------------
 
         // JOOQ will throw an exception, if something goes wrong
+        Lock l = transactionTableLocks.get(p.getChargeBoxId());
+        l.lock();
         try {
-            ctx.insertInto(TRANSACTION_STOP)
-               .set(TRANSACTION_STOP.TRANSACTION_PK, p.getTransactionId())
-               .set(TRANSACTION_STOP.EVENT_TIMESTAMP, p.getEventTimestamp())
-               .set(TRANSACTION_STOP.EVENT_ACTOR, p.getEventActor())
-               .set(TRANSACTION_STOP.STOP_TIMESTAMP, p.getStopTimestamp())
-               .set(TRANSACTION_STOP.STOP_VALUE, p.getStopMeterValue())
-               .set(TRANSACTION_STOP.STOP_REASON, p.getStopReason())
-               .execute();
+            ctx.transaction(configuration -> {
+                DSLContext ctx = DSL.using(configuration);
+
+                boolean stoppedAlready = ctx.fetchExists(TRANSACTION_STOP,
+                        TRANSACTION_STOP.TRANSACTION_PK.eq(p.getTransactionId()));
+
+                ctx.insertInto(TRANSACTION_STOP)
+                   .set(TRANSACTION_STOP.TRANSACTION_PK, p.getTransactionId())
+                   .set(TRANSACTION_STOP.EVENT_TIMESTAMP, p.getEventTimestamp())
+                   .set(TRANSACTION_STOP.EVENT_ACTOR, p.getEventActor())
+                   .set(TRANSACTION_STOP.STOP_TIMESTAMP, p.getStopTimestamp())
+                   .set(TRANSACTION_STOP.STOP_VALUE, p.getStopMeterValue())
+                   .set(TRANSACTION_STOP.STOP_REASON, p.getStopReason())
+                   .execute();
+
+                // a transaction can have multiple stop events, but it becomes inactive only with the first one
+                if (!stoppedAlready) {
+                    decrementActiveTransactionCount(ctx, p.getTransactionId());
+                }
+            });
         } catch (Exception e) {
             log.error("Exception occurred", e);
             tryInsertingFailed(p, e);
+        } finally {
+            l.unlock();
         }
 
         // -------------------------------------------------------------------------
@@ -289,12 +315,12 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         // -------------------------------------------------------------------------
 
         if (shouldInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId())) {
-            SelectConditionStep<Record1<Integer>> connectorPkQuery =
-                    DSL.select(TRANSACTION_START.CONNECTOR_PK)
-                       .from(TRANSACTION_START)
-                       .where(TRANSACTION_START.TRANSACTION_PK.equal(p.getTransactionId()));
+            Field<Integer> connectorPkQuery =
+                    DSL.field(DSL.select(TRANSACTION_START.CONNECTOR_PK)
+                                 .from(TRANSACTION_START)
+                                 .where(TRANSACTION_START.TRANSACTION_PK.equal(p.getTransactionId())));
 
-            insertConnectorStatus(ctx, connectorPkQuery, p.getStopTimestamp(), p.getStatusUpdate());
+            insertConnectorStatus(connectorPkQuery, p.getStopTimestamp(), p.getStatusUpdate());
         }
     }
 
@@ -313,14 +339,13 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
      * problems the response of StartTransaction could not be delivered and station tries again later), we do not want
      * to insert this into database multiple times.
      */
-    private TransactionDataHolder insertIgnoreTransaction(InsertTransactionParams p,
-                                                          SelectConditionStep<Record1<Integer>> connectorPkQuery) {
+    private TransactionDataHolder insertIgnoreTransaction(InsertTransactionParams p, int connectorPk) {
         Lock l = transactionTableLocks.get(p.getChargeBoxId());
         l.lock();
         try {
             Record1<Integer> r = ctx.select(TRANSACTION_START.TRANSACTION_PK)
                                     .from(TRANSACTION_START)
-                                    .where(TRANSACTION_START.CONNECTOR_PK.eq(connectorPkQuery))
+                                    .where(TRANSACTION_START.CONNECTOR_PK.eq(connectorPk))
                                     .and(TRANSACTION_START.ID_TAG.eq(p.getIdTag()))
                                     .and(TRANSACTION_START.START_TIMESTAMP.eq(p.getStartTimestamp()))
                                     .and(TRANSACTION_START.START_VALUE.eq(p.getStartMeterValue()))
@@ -330,15 +355,22 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
                 return new TransactionDataHolder(true, r.value1());
             }
 
-            Integer transactionId = ctx.insertInto(TRANSACTION_START)
-                                       .set(TRANSACTION_START.EVENT_TIMESTAMP, p.getEventTimestamp())
-                                       .set(TRANSACTION_START.CONNECTOR_PK, connectorPkQuery)
-                                       .set(TRANSACTION_START.ID_TAG, p.getIdTag())
-                                       .set(TRANSACTION_START.START_TIMESTAMP, p.getStartTimestamp())
-                                       .set(TRANSACTION_START.START_VALUE, p.getStartMeterValue())
-                                       .returning(TRANSACTION_START.TRANSACTION_PK)
-                                       .fetchOne()
-                                       .getTransactionPk();
+            Integer transactionId = ctx.transactionResult(configuration -> {
+                DSLContext ctx = DSL.using(configuration);
+
+                Integer pk = ctx.insertInto(TRANSACTION_START)
+                                .set(TRANSACTION_START.EVENT_TIMESTAMP, p.getEventTimestamp())
+                                .set(TRANSACTION_START.CONNECTOR_PK, connectorPk)
+                                .set(TRANSACTION_START.ID_TAG, p.getIdTag())
+                                .set(TRANSACTION_START.START_TIMESTAMP, p.getStartTimestamp())
+                                .set(TRANSACTION_START.START_VALUE, p.getStartMeterValue())
+                                .returning(TRANSACTION_START.TRANSACTION_PK)
+                                .fetchOne()
+                                .getTransactionPk();
+
+                incrementActiveTransactionCount(ctx, p.getIdTag());
+                return pk;
+            });
 
             // Actually unnecessary, because JOOQ will throw an exception, if something goes wrong
             if (transactionId == null) {
@@ -360,37 +392,81 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
      * notification will be used as current. Or, if this transaction data was sent to us for a failed push from the past
      * and we have a "more recent" status, it will still be the current status.
      */
-    private void insertConnectorStatus(DSLContext ctx,
-                                       SelectConditionStep<Record1<Integer>> connectorPkQuery,
+    private void insertConnectorStatus(Field<Integer> connectorPk,
                                        DateTime timestamp,
                                        TransactionStatusUpdate statusUpdate) {
         try {
-            ctx.insertInto(CONNECTOR_STATUS)
-               .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPkQuery)
-               .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, timestamp)
-               .set(CONNECTOR_STATUS.STATUS, statusUpdate.getStatus())
-               .set(CONNECTOR_STATUS.ERROR_CODE, statusUpdate.getErrorCode())
-               .execute();
+            ctx.transaction(configuration -> {
+                DSLContext ctx = DSL.using(configuration);
+
+                ctx.insertInto(CONNECTOR_STATUS)
+                   .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPk)
+                   .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, timestamp)
+                   .set(CONNECTOR_STATUS.STATUS, statusUpdate.getStatus())
+                   .set(CONNECTOR_STATUS.ERROR_CODE, statusUpdate.getErrorCode())
+                   .execute();
+
+                upsertLatestConnectorStatus(ctx, connectorPk, timestamp, statusUpdate.getStatus(),
+                        statusUpdate.getErrorCode(), null, null, null);
+            });
         } catch (Exception e) {
             log.error("Exception occurred", e);
         }
     }
 
     /**
-     * If the connector information was not received before, insert it. Otherwise, ignore.
+     * Out-of-order protection: The latest status of a connector is only overwritten by a status that is not older.
+     * Statuses can arrive late, e.g. when a station pushes queued messages after being offline.
+     *
+     * The update is tried first, since the connector has a latest status in most cases. If the insert fails because
+     * of a concurrent insert, the update is tried again, which then decides based on the timestamp.
      */
-    private void insertIgnoreConnector(DSLContext ctx, String chargeBoxIdentity, int connectorId) {
-        int count = ctx.insertInto(CONNECTOR,
-                            CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID)
-                       .values(chargeBoxIdentity, connectorId)
-                       .onDuplicateKeyIgnore() // Important detail
+    private static void upsertLatestConnectorStatus(DSLContext ctx, Field<Integer> connectorPk, DateTime timestamp,
+                                                    String status, String errorCode, String errorInfo,
+                                                    String vendorId, String vendorErrorCode) {
+        boolean updated = updateLatestConnectorStatus(ctx, connectorPk, timestamp, status, errorCode, errorInfo,
+                vendorId, vendorErrorCode);
+        if (updated) {
+            return;
+        }
+
+        int count = ctx.insertInto(CONNECTOR_STATUS_LATEST)
+                       .set(CONNECTOR_STATUS_LATEST.CONNECTOR_PK, connectorPk)
+                       .set(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP, timestamp)
+                       .set(CONNECTOR_STATUS_LATEST.STATUS, status)
+                       .set(CONNECTOR_STATUS_LATEST.ERROR_CODE, errorCode)
+                       .set(CONNECTOR_STATUS_LATEST.ERROR_INFO, errorInfo)
+                       .set(CONNECTOR_STATUS_LATEST.VENDOR_ID, vendorId)
+                       .set(CONNECTOR_STATUS_LATEST.VENDOR_ERROR_CODE, vendorErrorCode)
+                       .onDuplicateKeyIgnore()
                        .execute();
 
-        if (count == 1) {
-            log.info("The connector {}/{} is NEW, and inserted into DB.", chargeBoxIdentity, connectorId);
+        if (count == 0) {
+            updateLatestConnectorStatus(ctx, connectorPk, timestamp, status, errorCode, errorInfo,
+                    vendorId, vendorErrorCode);
         }
     }
 
+    /**
+     * @return false, if there is no row to update, or if the existing row has a newer timestamp
+     */
+    private static boolean updateLatestConnectorStatus(DSLContext ctx, Field<Integer> connectorPk, DateTime timestamp,
+                                                       String status, String errorCode, String errorInfo,
+                                                       String vendorId, String vendorErrorCode) {
+        int count = ctx.update(CONNECTOR_STATUS_LATEST)
+                       .set(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP, timestamp)
+                       .set(CONNECTOR_STATUS_LATEST.STATUS, status)
+                       .set(CONNECTOR_STATUS_LATEST.ERROR_CODE, errorCode)
+                       .set(CONNECTOR_STATUS_LATEST.ERROR_INFO, errorInfo)
+                       .set(CONNECTOR_STATUS_LATEST.VENDOR_ID, vendorId)
+                       .set(CONNECTOR_STATUS_LATEST.VENDOR_ERROR_CODE, vendorErrorCode)
+                       .where(CONNECTOR_STATUS_LATEST.CONNECTOR_PK.eq(connectorPk))
+                       .and(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.isNull()
+                               .or(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.le(timestamp)))
+                       .execute();
+        return count > 0;
+    }
+
     /**
      * Use case: An offline charging station decides to allow an unknown idTag to start a transaction. Later, when it
      * is online, it sends a StartTransactionRequest with this idTag. If we do not insert this idTag, the transaction
@@ -410,6 +486,30 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         return count == 1;
     }
 
+    /**
+     * The active transaction counts are materialized in their own table (instead of aggregating all transactions
+     * that are not stopped), so that ocpp_tag_activity stays a primary key lookup for Authorize and co.
+     */
+    private static void incrementActiveTransactionCount(DSLContext ctx, String idTag) {
+        ctx.insertInto(OCPP_TAG_ACTIVE_TRANSACTION,
+                    OCPP_TAG_ACTIVE_TRANSACTION.ID_TAG, OCPP_TAG_ACTIVE_TRANSACTION.ACTIVE_TRANSACTION_COUNT)
+           .values(idTag, 1)
+           .onDuplicateKeyUpdate()
+           .set(OCPP_TAG_ACTIVE_TRANSACTION.ACTIVE_TRANSACTION_COUNT,
+                   OCPP_TAG_ACTIVE_TRANSACTION.ACTIVE_TRANSACTION_COUNT.plus(1))
+           .execute();
+    }
+
+    private static void decrementActiveTransactionCount(DSLContext ctx, int transactionPk) {
+        ctx.update(OCPP_TAG_ACTIVE_TRANSACTION)
+           .set(OCPP_TAG_ACTIVE_TRANSACTION.ACTIVE_TRANSACTION_COUNT,
+                   DSL.greatest(OCPP_TAG_ACTIVE_TRANSACTION.ACTIVE_TRANSACTION_COUNT.minus(1), DSL.inline(0)))
+           .where(OCPP_TAG_ACTIVE_TRANSACTION.ID_TAG.eq(DSL.select(TRANSACTION_START.ID_TAG)
+                                                           .from(TRANSACTION_START)
+                                                           .where(TRANSACTION_START.TRANSACTION_PK.eq(transactionPk))))
+           .execute();
+    }
+
     private boolean shouldInsertConnectorStatusAfterTransactionMsg(String chargeBoxId) {
         Record1<Integer> r = ctx.selectOne()
                                 .from(CHARGE_BOX)
@@ -420,15 +520,6 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         return (r != null) && (r.value1() == 1);
     }
 
-    private int getConnectorPkFromConnector(DSLContext ctx, String chargeBoxIdentity, int connectorId) {
-        return ctx.select(CONNECTOR.CONNECTOR_PK)
-                  .from(CONNECTOR)
-                  .where(CONNECTOR.CHARGE_BOX_ID.equal(chargeBoxIdentity))
-                  .and(CONNECTOR.CONNECTOR_ID.equal(connectorId))
-                  .fetchOne()
-                  .value1();
-    }
-
     private void batchInsertMeterValues(DSLContext ctx, List<MeterValue> list, int connectorPk, Integer transactionId) {
         List<ConnectorMeterValueRecord> batch =
                 list.stream()
@@ -451,6 +542,24 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         ctx.batchInsert(batch).execute();
     }
 
+    private static List<InsertMeterValuesParams.Value> toInsertValues(List<MeterValue> list) {
+        return list.stream()
+                   .flatMap(t -> t.getSampledValue()
+                                  .stream()
+                                  .map(k -> InsertMeterValuesParams.Value.builder()
+                                                                         .valueTimestamp(t.getTimestamp())
+                                                                         .value(k.getValue())
+                                                                         // The following are optional fields!
+                                                                         .readingContext(k.isSetContext() ? k.getContext().value() : null)
+                                                                         .format(k.isSetFormat() ? k.getFormat().value() : null)
+                                                                         .measurand(k.isSetMeasurand() ? k.getMeasurand().value() : null)
+                                                                         .location(k.isSetLocation() ? k.getLocation().value() : null)
+                                                                         .unit(k.isSetUnit() ? k.getUnit().value() : null)
+                                                                         .phase(k.isSetPhase() ? k.getPhase().value() : null)
+                                                                         .build()))
+                   .collect(Collectors.toList());
+    }
+
     private void tryInsertingFailed(UpdateTransactionParams p, Exception e) {
         try {
             ctx.insertInto(TRANSACTION_STOP_FAILED)
@@ -120,6 +120,19 @@ public class OcppTagRepositoryImpl implements OcppTagRepository {
         processBooleanType(selectQuery, OCPP_TAG_ACTIVITY.IN_TRANSACTION, form.getInTransaction());
         processBooleanType(selectQuery, OCPP_TAG_ACTIVITY.BLOCKED, form.getBlocked());
 
+        // keyset pagination: the primary key index is used to find the start of the page, unlike with an offset
+        if (form.isAfterOcppTagPkSet()) {
+            selectQuery.addConditions(OCPP_TAG_ACTIVITY.OCPP_TAG_PK.greaterThan(form.getAfterOcppTagPk()));
+        }
+
+        if (form.isAfterOcppTagPkSet() || form.isLimitSet()) {
+            selectQuery.addOrderBy(OCPP_TAG_ACTIVITY.OCPP_TAG_PK.asc());
+        }
+
+        if (form.isLimitSet()) {
+            selectQuery.addLimit(form.getLimit());
+        }
+
         return selectQuery.fetch().map(new UserMapper());
     }
 
@@ -24,11 +24,13 @@ import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.repository.dto.MailSettings;
 import de.rwth.idsg.steve.web.dto.SettingsForm;
 import jooq.steve.db.tables.records.SettingsRecord;
+import lombok.RequiredArgsConstructor;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
@@ -55,61 +57,59 @@ public class SettingsRepositoryImpl implements SettingsRepository {
 
     @Autowired private DSLContext ctx;
 
+    /**
+     * The settings are read for every BootNotification and (accepted) authorization, but they only change when
+     * somebody saves the settings page. Therefore, we read them once and replace the whole snapshot after an update,
+     * so that all consumers (incl. MailService) see the same and consistent state without any database access.
+     */
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        snapshot = loadSnapshot();
+    }
+
     @Override
     public SettingsForm getForm() {
-        SettingsRecord r = getInternal();
-
-        List<String> eMails = splitByComma(r.getMailRecipients());
-        List<NotificationFeature> features = splitFeatures(r.getNotificationFeatures());
+        Snapshot s = snapshot;
+        MailSettings mail = s.mailSettings;
 
         return SettingsForm.builder()
-                           .heartbeat(toMin(r.getHeartbeatIntervalInSeconds()))
-                           .expiration(r.getHoursToExpire())
-                           .enabled(r.getMailEnabled())
-                           .host(r.getMailHost())
-                           .username(r.getMailUsername())
-                           .password(r.getMailPassword())
-                           .from(r.getMailFrom())
-                           .protocol(r.getMailProtocol())
-                           .port(r.getMailPort())
-                           .recipients(eMails)
-                           .enabledFeatures(features)
+                           .heartbeat(toMin(s.heartbeatIntervalInSeconds))
+                           .expiration(s.hoursToExpire)
+                           .enabled(mail.isEnabled())
+                           .host(mail.getHost())
+                           .username(mail.getUsername())
+                           .password(mail.getPassword())
+                           .from(mail.getFrom())
+                           .protocol(mail.getProtocol())
+                           .port(mail.getPort())
+                           .recipients(mail.getRecipients())
+                           .enabledFeatures(mail.getEnabledFeatures())
                            .build();
 
     }
 
     @Override
     public MailSettings getMailSettings() {
-        SettingsRecord r = getInternal();
-
-        List<String> eMails = splitByComma(r.getMailRecipients());
-        List<NotificationFeature> features = splitFeatures(r.getNotificationFeatures());
-
-        return MailSettings.builder()
-                           .enabled(r.getMailEnabled())
-                           .host(r.getMailHost())
-                           .username(r.getMailUsername())
-                           .password(r.getMailPassword())
-                           .from(r.getMailFrom())
-                           .protocol(r.getMailProtocol())
-                           .port(r.getMailPort())
-                           .recipients(eMails)
-                           .enabledFeatures(features)
-                           .build();
+        return snapshot.mailSettings;
     }
 
     @Override
     public int getHeartbeatIntervalInSeconds() {
-        return getInternal().getHeartbeatIntervalInSeconds();
+        return snapshot.heartbeatIntervalInSeconds;
     }
 
     @Override
     public int getHoursToExpire() {
-        return getInternal().getHoursToExpire();
+        return snapshot.hoursToExpire;
     }
 
+    /**
+     * Synchronized, so that concurrent updates cannot swap in an older snapshot in the end
+     */
     @Override
-    public void update(SettingsForm form) {
+    public synchronized void update(SettingsForm form) {
         String eMails = joinByComma(form.getRecipients());
         String features = joinByComma(form.getEnabledFeatures());
 
@@ -132,6 +132,29 @@ public class SettingsRepositoryImpl implements SettingsRepository {
         } catch (DataAccessException e) {
             throw new SteveException("FAILED to save the settings", e);
         }
+
+        snapshot = loadSnapshot();
+    }
+
+    private Snapshot loadSnapshot() {
+        SettingsRecord r = getInternal();
+
+        List<String> eMails = splitByComma(r.getMailRecipients());
+        List<NotificationFeature> features = splitFeatures(r.getNotificationFeatures());
+
+        MailSettings mailSettings = MailSettings.builder()
+                                                .enabled(r.getMailEnabled())
+                                                .host(r.getMailHost())
+                                                .username(r.getMailUsername())
+                                                .password(r.getMailPassword())
+                                                .from(r.getMailFrom())
+                                                .protocol(r.getMailProtocol())
+                                                .port(r.getMailPort())
+                                                .recipients(eMails)
+                                                .enabledFeatures(features)
+                                                .build();
+
+        return new Snapshot(r.getHeartbeatIntervalInSeconds(), r.getHoursToExpire(), mailSettings);
     }
 
     private SettingsRecord getInternal() {
@@ -153,6 +176,13 @@ public class SettingsRepositoryImpl implements SettingsRepository {
     private List<NotificationFeature> splitFeatures(String str) {
         return splitByComma(str).stream()
                                 .map(NotificationFeature::fromName)
-                                .collect(Collectors.toList());
+                                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @RequiredArgsConstructor
+    private static final class Snapshot {
+        private final int heartbeatIntervalInSeconds;
+        private final int hoursToExpire;
+        private final MailSettings mailSettings;
     }
 }
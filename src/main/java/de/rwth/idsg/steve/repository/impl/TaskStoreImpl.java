@@ -20,17 +20,34 @@ package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.CommunicationTask;
+import de.rwth.idsg.steve.ocpp.RequestResult;
+import de.rwth.idsg.steve.ocpp.TaskView;
 import de.rwth.idsg.steve.repository.TaskStore;
 import de.rwth.idsg.steve.repository.dto.TaskOverview;
+import de.rwth.idsg.steve.repository.dto.TaskSummary;
 import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.joda.time.DateTime;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
+ * The tasks are kept in memory and removed
+ * 1) when they are finished for longer than the configured TTL,
+ * 2) when the store is full (oldest finished ones first), or
+ * 3) when the user clears the finished ones.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 29.12.2014
  */
@@ -38,42 +55,91 @@ import java.util.stream.Collectors;
 @Repository
 public class TaskStoreImpl implements TaskStore {
 
+    private static final long EVICTION_INTERVAL_IN_MINUTES = 1;
+
     private final AtomicInteger atomicInteger = new AtomicInteger(0);
-    private final ConcurrentHashMap<Integer, CommunicationTask> lookupTable = new ConcurrentHashMap<>();
+
+    // Descending order of taskIds. Since the taskIds are increasing, this is also the order of start timestamps,
+    // and the overview is just a slice of it.
+    private final ConcurrentSkipListMap<Integer, Entry> lookupTable =
+            new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+
+    // ConcurrentSkipListMap.size() is not a constant-time operation
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    private final int maxSize = CONFIG.getOcpp().getTaskStoreMaxSize();
+    private final long ttlInMillis = TimeUnit.MINUTES.toMillis(CONFIG.getOcpp().getTaskStoreTtlInMinutes());
+    private final boolean compactFinished = CONFIG.getOcpp().isTaskStoreCompactFinished();
+
+    private final ScheduledExecutorService executorService;
+
+    public TaskStoreImpl(ScheduledExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    @PostConstruct
+    public void init() {
+        executorService.scheduleWithFixedDelay(
+                this::evictExpired,
+                EVICTION_INTERVAL_IN_MINUTES,
+                EVICTION_INTERVAL_IN_MINUTES,
+                TimeUnit.MINUTES
+        );
+    }
 
     @Override
-    public List<TaskOverview> getOverview() {
+    public List<TaskOverview> getOverview(int offset, int limit) {
         return lookupTable.entrySet()
                           .stream()
-                          .map(entry -> {
-                              CommunicationTask r = entry.getValue();
-                              return TaskOverview.builder()
-                                                 .taskId(entry.getKey())
-                                                 .origin(r.getOrigin())
-                                                 .start(r.getStartTimestamp())
-                                                 .end(r.getEndTimestamp())
-                                                 .responseCount(r.getResponseCount().get())
-                                                 .requestCount(r.getResultMap().size())
-                                                 .build();
-                          })
-                          .sorted()
+                          .skip(offset)
+                          .limit(limit)
+                          .map(entry -> entry.getValue().toOverview(entry.getKey()))
                           .collect(Collectors.toList());
     }
 
+    @Override
+    public int size() {
+        return size.get();
+    }
+
     @Override
     public CommunicationTask get(Integer taskId) {
-        CommunicationTask r = lookupTable.get(taskId);
-        if (r == null) {
-            throw new SteveException("There is no task with taskId '%s'", taskId);
+        Entry entry = getEntry(taskId);
+        if (entry.task == null) {
+            throw new SteveException("The task with taskId '%s' is finished and only its summary is kept", taskId);
         } else {
-            return r;
+            return entry.task;
         }
     }
 
+    @Override
+    public TaskView getTaskOrSummary(Integer taskId) {
+        Entry entry = getEntry(taskId);
+        return entry.task == null ? entry.summary : entry.task;
+    }
+
+    @Override
+    public RequestResult getResult(Integer taskId, String chargeBoxId) {
+        Entry entry = getEntry(taskId);
+        Map<String, RequestResult> resultMap = entry.task == null
+                ? entry.summary.getResultMap()
+                : entry.task.getResultMap();
+
+        RequestResult result = resultMap.get(chargeBoxId);
+        if (result == null) {
+            throw new SteveException("Result not found");
+        }
+        return result;
+    }
+
     @Override
     public Integer add(CommunicationTask task) {
         int taskId = atomicInteger.incrementAndGet();
-        lookupTable.put(taskId, task);
+        lookupTable.put(taskId, new Entry(task, null));
+
+        if (size.incrementAndGet() > maxSize) {
+            evictOverflow();
+        }
         return taskId;
     }
 
@@ -82,6 +148,132 @@ public class TaskStoreImpl implements TaskStore {
         lookupTable.entrySet()
                    .stream()
                    .filter(entry -> entry.getValue().isFinished())
-                   .forEach(entry -> lookupTable.remove(entry.getKey()));
+                   .forEach(entry -> remove(entry.getKey()));
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private Entry getEntry(Integer taskId) {
+        Entry entry = lookupTable.get(taskId);
+        if (entry == null) {
+            throw new SteveException("There is no task with taskId '%s'", taskId);
+        } else {
+            return entry;
+        }
+    }
+
+    private boolean remove(Integer taskId) {
+        boolean removed = lookupTable.remove(taskId) != null;
+        if (removed) {
+            size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    private void evictExpired() {
+        try {
+            long expiredBefore = System.currentTimeMillis() - ttlInMillis;
+
+            for (Map.Entry<Integer, Entry> mapEntry : lookupTable.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                DateTime end = entry.getEndTimestamp();
+                if (end == null) {
+                    continue;
+                }
+
+                if (end.getMillis() < expiredBefore) {
+                    remove(mapEntry.getKey());
+                } else if (compactFinished && entry.task != null) {
+                    Entry compacted = new Entry(null, TaskSummary.from(entry.task));
+                    lookupTable.replace(mapEntry.getKey(), entry, compacted);
+                }
+            }
+
+            evictOverflow();
+        } catch (Exception e) {
+            log.error("Failed to evict the expired tasks", e);
+        }
+    }
+
+    /**
+     * Removes the oldest finished tasks first. Only if this is not enough, the oldest unfinished ones are removed as
+     * well. Their callbacks still work, but their results cannot be displayed anymore.
+     */
+    private synchronized void evictOverflow() {
+        int excess = size.get() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+
+        Map<Integer, Entry> oldestFirst = lookupTable.descendingMap();
+
+        for (Map.Entry<Integer, Entry> mapEntry : oldestFirst.entrySet()) {
+            if (excess <= 0) {
+                return;
+            }
+            if (mapEntry.getValue().isFinished() && remove(mapEntry.getKey())) {
+                excess--;
+            }
+        }
+
+        for (Map.Entry<Integer, Entry> mapEntry : oldestFirst.entrySet()) {
+            if (excess <= 0) {
+                return;
+            }
+            if (remove(mapEntry.getKey())) {
+                log.warn("The task store is full. Removed the unfinished task with taskId '{}'", mapEntry.getKey());
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Either the task itself or, after compaction, its summary is set.
+     */
+    private static final class Entry {
+        @Nullable private final CommunicationTask task;
+        @Nullable private final TaskSummary summary;
+
+        private Entry(@Nullable CommunicationTask task, @Nullable TaskSummary summary) {
+            this.task = task;
+            this.summary = summary;
+        }
+
+        private boolean isFinished() {
+            return summary != null || task.isFinished();
+        }
+
+        @Nullable
+        private DateTime getEndTimestamp() {
+            if (summary != null) {
+                return summary.getEndTimestamp();
+            }
+            // isFinished() synchronizes with the thread that set the end timestamp
+            return task.isFinished() ? task.getEndTimestamp() : null;
+        }
+
+        private TaskOverview toOverview(int taskId) {
+            if (summary != null) {
+                return TaskOverview.builder()
+                                   .taskId(taskId)
+                                   .origin(summary.getOrigin())
+                                   .start(summary.getStartTimestamp())
+                                   .end(summary.getEndTimestamp())
+                                   .responseCount(summary.getResponseCount())
+                                   .requestCount(summary.getResultMap().size())
+                                   .build();
+            } else {
+                return TaskOverview.builder()
+                                   .taskId(taskId)
+                                   .origin(task.getOrigin())
+                                   .start(task.getStartTimestamp())
+                                   .end(task.getEndTimestamp())
+                                   .responseCount(task.getResponseCount())
+                                   .requestCount(task.getResultMap().size())
+                                   .build();
+            }
+        }
     }
 }
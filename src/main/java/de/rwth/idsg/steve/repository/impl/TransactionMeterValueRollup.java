@@ -0,0 +1,161 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
+import de.rwth.idsg.steve.utils.TransactionStopServiceHelper;
+import lombok.Getter;
+import org.joda.time.DateTime;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.jooq.impl.DSL;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static jooq.steve.db.tables.TransactionMeterValueSummary.TRANSACTION_METER_VALUE_SUMMARY;
+
+/**
+ * Aggregates the meter values of a batch per transaction, and merges them into the summary in database. This way,
+ * the summary does not require a scan of the meter values of a transaction. All parts of the merge are idempotent, so
+ * that writing the same values again (e.g. the replay of a spill file) does not change the summary.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Getter
+final class TransactionMeterValueRollup {
+
+    private final int transactionPk;
+
+    private DateTime firstEnergyTimestamp;
+    private Double firstEnergyValue;
+
+    private DateTime lastEnergyTimestamp;
+    private Double lastEnergyValue;
+
+    private Double maxPowerValue;
+
+    private TransactionMeterValueRollup(int transactionPk) {
+        this.transactionPk = transactionPk;
+    }
+
+    /**
+     * The values without a transaction id are skipped, since we cannot assign them to a transaction reliably.
+     */
+    static List<Query> toUpserts(DSLContext ctx, List<InsertMeterValuesParams> batch) {
+        Collection<TransactionMeterValueRollup> rollups = aggregate(batch);
+
+        List<Query> queries = new ArrayList<>(rollups.size());
+        for (TransactionMeterValueRollup rollup : rollups) {
+            queries.add(rollup.toUpsert(ctx));
+        }
+        return queries;
+    }
+
+    static Collection<TransactionMeterValueRollup> aggregate(List<InsertMeterValuesParams> batch) {
+        Map<Integer, TransactionMeterValueRollup> lookup = new LinkedHashMap<>();
+
+        for (InsertMeterValuesParams p : batch) {
+            if (p.getTransactionId() == null) {
+                continue;
+            }
+            TransactionMeterValueRollup rollup =
+                    lookup.computeIfAbsent(p.getTransactionId(), TransactionMeterValueRollup::new);
+            for (InsertMeterValuesParams.Value v : p.getValues()) {
+                rollup.add(v);
+            }
+        }
+        return lookup.values();
+    }
+
+    private void add(InsertMeterValuesParams.Value v) {
+        DateTime ts = v.getValueTimestamp();
+
+        if (ts != null && TransactionStopServiceHelper.isEnergyValue(v)) {
+            double value = TransactionStopServiceHelper.toBaseUnit(v.getValue(), v.getUnit());
+
+            if (firstEnergyTimestamp == null || ts.isBefore(firstEnergyTimestamp)) {
+                firstEnergyTimestamp = ts;
+                firstEnergyValue = value;
+            }
+
+            if (lastEnergyTimestamp == null || !ts.isBefore(lastEnergyTimestamp)) {
+                lastEnergyTimestamp = ts;
+                lastEnergyValue = value;
+            }
+
+        } else if (TransactionStopServiceHelper.isPowerValue(v)) {
+            double value = TransactionStopServiceHelper.toBaseUnit(v.getValue(), v.getUnit());
+
+            if (maxPowerValue == null || value > maxPowerValue) {
+                maxPowerValue = value;
+            }
+        }
+    }
+
+    /**
+     * MySQL evaluates the assignments of ON DUPLICATE KEY UPDATE from left to right, and the later ones see the
+     * updated values. Therefore, the energy values must be set before their timestamps, because their conditions
+     * compare the old timestamps.
+     */
+    Query toUpsert(DSLContext ctx) {
+        Field<DateTime> firstTs = TRANSACTION_METER_VALUE_SUMMARY.FIRST_ENERGY_TIMESTAMP;
+        Field<Double> firstValue = TRANSACTION_METER_VALUE_SUMMARY.FIRST_ENERGY_VALUE;
+        Field<DateTime> lastTs = TRANSACTION_METER_VALUE_SUMMARY.LAST_ENERGY_TIMESTAMP;
+        Field<Double> lastValue = TRANSACTION_METER_VALUE_SUMMARY.LAST_ENERGY_VALUE;
+        Field<Double> maxPower = TRANSACTION_METER_VALUE_SUMMARY.MAX_POWER_VALUE;
+
+        var insert = ctx.insertInto(TRANSACTION_METER_VALUE_SUMMARY)
+                        .set(TRANSACTION_METER_VALUE_SUMMARY.TRANSACTION_PK, transactionPk)
+                        .set(TRANSACTION_METER_VALUE_SUMMARY.FIRST_ENERGY_TIMESTAMP, firstEnergyTimestamp)
+                        .set(TRANSACTION_METER_VALUE_SUMMARY.FIRST_ENERGY_VALUE, firstEnergyValue)
+                        .set(TRANSACTION_METER_VALUE_SUMMARY.LAST_ENERGY_TIMESTAMP, lastEnergyTimestamp)
+                        .set(TRANSACTION_METER_VALUE_SUMMARY.LAST_ENERGY_VALUE, lastEnergyValue)
+                        .set(TRANSACTION_METER_VALUE_SUMMARY.MAX_POWER_VALUE, maxPowerValue)
+                        .onDuplicateKeyUpdate()
+                        // no-op, since the update requires an assignment, even if the batch has no relevant values
+                        .set(TRANSACTION_METER_VALUE_SUMMARY.TRANSACTION_PK,
+                                TRANSACTION_METER_VALUE_SUMMARY.TRANSACTION_PK);
+
+        if (firstEnergyTimestamp != null) {
+            Condition isFirst = firstTs.isNull().or(firstTs.greaterThan(firstEnergyTimestamp));
+            insert = insert.set(firstValue, DSL.when(isFirst, DSL.val(firstEnergyValue)).otherwise(firstValue))
+                           .set(firstTs, DSL.when(isFirst, DSL.val(firstEnergyTimestamp)).otherwise(firstTs));
+        }
+
+        if (lastEnergyTimestamp != null) {
+            Condition isLast = lastTs.isNull().or(lastTs.lessOrEqual(lastEnergyTimestamp));
+            insert = insert.set(lastValue, DSL.when(isLast, DSL.val(lastEnergyValue)).otherwise(lastValue))
+                           .set(lastTs, DSL.when(isLast, DSL.val(lastEnergyTimestamp)).otherwise(lastTs));
+        }
+
+        if (maxPowerValue != null) {
+            Field<Double> newValue = DSL.val(maxPowerValue);
+            insert = insert.set(maxPower, DSL.greatest(DSL.coalesce(maxPower, newValue), newValue));
+        }
+
+        return insert;
+    }
+}
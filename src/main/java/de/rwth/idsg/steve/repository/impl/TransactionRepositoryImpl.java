@@ -22,18 +22,29 @@ import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.repository.TransactionRepository;
 import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
+import de.rwth.idsg.steve.repository.dto.TransactionMeterValueSummary;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
 import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
 import jooq.steve.db.enums.TransactionStopEventActor;
 import jooq.steve.db.tables.records.ConnectorMeterValueRecord;
+import jooq.steve.db.tables.records.TransactionMeterValueSummaryRecord;
 import jooq.steve.db.tables.records.TransactionStartRecord;
+import org.jetbrains.annotations.Nullable;
 import org.joda.time.DateTime;
+import org.joda.time.LocalDateTime;
+import org.jooq.CSVFormat;
 import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record1;
+import org.jooq.Record11;
 import org.jooq.Record12;
 import org.jooq.Record9;
 import org.jooq.RecordMapper;
+import org.jooq.ResultQuery;
+import org.jooq.Select;
 import org.jooq.SelectQuery;
 import org.jooq.Table;
 import org.jooq.impl.DSL;
@@ -49,7 +60,9 @@ import static jooq.steve.db.tables.Connector.CONNECTOR;
 import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
 import static jooq.steve.db.tables.Transaction.TRANSACTION;
+import static jooq.steve.db.tables.TransactionMeterValueSummary.TRANSACTION_METER_VALUE_SUMMARY;
 import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
+import static jooq.steve.db.tables.TransactionStop.TRANSACTION_STOP;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -58,6 +71,11 @@ import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
 @Repository
 public class TransactionRepositoryImpl implements TransactionRepository {
 
+    /**
+     * Number of rows that are held in memory while writing a CSV
+     */
+    private static final int CSV_CHUNK_SIZE = 1_000;
+
     private final DSLContext ctx;
 
     @Autowired
@@ -73,8 +91,12 @@ public class TransactionRepositoryImpl implements TransactionRepository {
 
     @Override
     public void writeTransactionsCSV(TransactionQueryForm form, Writer writer) {
-        getInternalCSV(form).fetch()
-                            .formatCSV(writer);
+        writeCSV(getInternalCSV(form), writer);
+    }
+
+    @Override
+    public void writeMeterValuesCSV(TransactionQueryForm form, Writer writer) {
+        writeCSV(getInternalMeterValuesCSV(form), writer);
     }
 
     @Override
@@ -88,6 +110,41 @@ public class TransactionRepositoryImpl implements TransactionRepository {
                   .fetch(TRANSACTION.TRANSACTION_PK);
     }
 
+    @Override
+    public Transaction getTransaction(int transactionPk) {
+        return new TransactionMapper().map(getInternalOne(transactionPk));
+    }
+
+    @Nullable
+    @Override
+    public TransactionMeterValueSummary getMeterValueSummary(int transactionPk) {
+        TransactionMeterValueSummaryRecord r = ctx.selectFrom(TRANSACTION_METER_VALUE_SUMMARY)
+                                                  .where(TRANSACTION_METER_VALUE_SUMMARY.TRANSACTION_PK.eq(transactionPk))
+                                                  .fetchOne();
+
+        if (r == null) {
+            return null;
+        }
+
+        return TransactionMeterValueSummary.builder()
+                                           .transactionPk(r.getTransactionPk())
+                                           .firstEnergyTimestamp(r.getFirstEnergyTimestamp())
+                                           .firstEnergyValue(r.getFirstEnergyValue())
+                                           .lastEnergyTimestamp(r.getLastEnergyTimestamp())
+                                           .lastEnergyValue(r.getLastEnergyValue())
+                                           .maxPowerValue(r.getMaxPowerValue())
+                                           .build();
+    }
+
+    @Nullable
+    @Override
+    public String getIdTag(int transactionPk) {
+        return ctx.select(TRANSACTION_START.ID_TAG)
+                  .from(TRANSACTION_START)
+                  .where(TRANSACTION_START.TRANSACTION_PK.eq(transactionPk))
+                  .fetchOne(TRANSACTION_START.ID_TAG);
+    }
+
     @Override
     public TransactionDetails getDetails(int transactionPk, boolean firstArrivingMeterValueIfMultiple) {
 
@@ -95,17 +152,8 @@ public class TransactionRepositoryImpl implements TransactionRepository {
         // Step 1: Collect general data about transaction
         // -------------------------------------------------------------------------
 
-        TransactionQueryForm form = new TransactionQueryForm();
-        form.setTransactionPk(transactionPk);
-        form.setType(TransactionQueryForm.QueryType.ALL);
-        form.setPeriodType(TransactionQueryForm.QueryPeriodType.ALL);
-
         Record12<Integer, String, Integer, String, DateTime, String, DateTime, String, String, Integer, Integer, TransactionStopEventActor>
-                transaction = getInternal(form).fetchOne();
-
-        if (transaction == null) {
-            throw new SteveException("There is no transaction with id '%s'", transactionPk);
-        }
+                transaction = getInternalOne(transactionPk);
 
         DateTime startTimestamp = transaction.value5();
         DateTime stopTimestamp = transaction.value7();
@@ -223,13 +271,32 @@ public class TransactionRepositoryImpl implements TransactionRepository {
                                                            .phase(r.value8())
                                                            .build());
 
-        return new TransactionDetails(new TransactionMapper().map(transaction), values, nextTx);
+        return new TransactionDetails(new TransactionMapper().map(transaction), values, nextTx,
+                getMeterValueSummary(transactionPk));
     }
 
     // -------------------------------------------------------------------------
     // Private helpers
     // -------------------------------------------------------------------------
 
+    private
+    Record12<Integer, String, Integer, String, DateTime, String, DateTime, String, String, Integer, Integer, TransactionStopEventActor>
+    getInternalOne(int transactionPk) {
+
+        TransactionQueryForm form = new TransactionQueryForm();
+        form.setTransactionPk(transactionPk);
+        form.setType(TransactionQueryForm.QueryType.ALL);
+        form.setPeriodType(TransactionQueryForm.QueryPeriodType.ALL);
+
+        Record12<Integer, String, Integer, String, DateTime, String, DateTime, String, String, Integer, Integer, TransactionStopEventActor>
+                transaction = getInternal(form).fetchOne();
+
+        if (transaction == null) {
+            throw new SteveException("There is no transaction with id '%s'", transactionPk);
+        }
+        return transaction;
+    }
+
     @SuppressWarnings("unchecked")
     private
     SelectQuery<Record9<Integer, String, Integer, String, DateTime, String, DateTime, String, String>>
@@ -253,6 +320,50 @@ public class TransactionRepositoryImpl implements TransactionRepository {
         return addConditions(selectQuery, form);
     }
 
+    @SuppressWarnings("unchecked")
+    private
+    SelectQuery<Record11<Integer, String, Integer, DateTime, String, String, String, String, String, String, String>>
+    getInternalMeterValuesCSV(TransactionQueryForm form) {
+
+        SelectQuery selectQuery = ctx.selectQuery();
+        selectQuery.addFrom(CONNECTOR_METER_VALUE);
+        selectQuery.addJoin(TRANSACTION, TRANSACTION.TRANSACTION_PK.eq(CONNECTOR_METER_VALUE.TRANSACTION_PK));
+        selectQuery.addJoin(CONNECTOR, TRANSACTION.CONNECTOR_PK.eq(CONNECTOR.CONNECTOR_PK));
+        selectQuery.addSelect(
+                TRANSACTION.TRANSACTION_PK,
+                CONNECTOR.CHARGE_BOX_ID,
+                CONNECTOR.CONNECTOR_ID,
+                CONNECTOR_METER_VALUE.VALUE_TIMESTAMP,
+                CONNECTOR_METER_VALUE.VALUE,
+                CONNECTOR_METER_VALUE.READING_CONTEXT,
+                CONNECTOR_METER_VALUE.FORMAT,
+                CONNECTOR_METER_VALUE.MEASURAND,
+                CONNECTOR_METER_VALUE.LOCATION,
+                CONNECTOR_METER_VALUE.UNIT,
+                CONNECTOR_METER_VALUE.PHASE
+        );
+
+        addConditions(selectQuery, form);
+        selectQuery.addOrderBy(CONNECTOR_METER_VALUE.VALUE_TIMESTAMP.asc());
+        return selectQuery;
+    }
+
+    /**
+     * Integer.MIN_VALUE as fetch size makes the MySQL driver stream the rows, instead of reading the whole result
+     * set into memory. The rows are written in chunks to the writer. Therefore, the memory usage does not depend on
+     * the size of the result.
+     */
+    private static <R extends Record> void writeCSV(ResultQuery<R> query, Writer writer) {
+        try (Cursor<R> cursor = query.fetchSize(Integer.MIN_VALUE).fetchLazy()) {
+            boolean header = true;
+            do {
+                cursor.fetchNext(CSV_CHUNK_SIZE)
+                      .formatCSV(writer, new CSVFormat().header(header));
+                header = false;
+            } while (cursor.hasNext());
+        }
+    }
+
     /**
      * Difference from getInternalCSV:
      * Joins with CHARGE_BOX and OCPP_TAG tables, selects CHARGE_BOX_PK and OCPP_TAG_PK additionally
@@ -305,12 +416,47 @@ public class TransactionRepositoryImpl implements TransactionRepository {
 
         processType(selectQuery, form);
 
-        // Default order
-        selectQuery.addOrderBy(TRANSACTION.TRANSACTION_PK.desc());
+        if (form.isSinceSet()) {
+            // a join with the derived table, since MySQL might evaluate an IN subquery per row of transaction
+            Table<Record1<Integer>> since = getTransactionPksWithEventsSince(form.getSince()).asTable("since");
+            selectQuery.addJoin(since, TRANSACTION.TRANSACTION_PK.eq(since.field(TRANSACTION_START.TRANSACTION_PK)));
+        }
+
+        // keyset pagination: the primary key index is used to find the start of the page, unlike with an offset
+        if (form.isAfterTransactionPkSet()) {
+            selectQuery.addConditions(TRANSACTION.TRANSACTION_PK.greaterThan(form.getAfterTransactionPk()));
+        }
+
+        // pages are ordered ascending, such that the next page starts after the last key of the previous one. the first
+        // page does not need afterTransactionPk.
+        if (form.isAfterTransactionPkSet() || form.isLimitSet()) {
+            selectQuery.addOrderBy(TRANSACTION.TRANSACTION_PK.asc());
+        } else {
+            // Default order
+            selectQuery.addOrderBy(TRANSACTION.TRANSACTION_PK.desc());
+        }
+
+        if (form.isLimitSet()) {
+            selectQuery.addLimit(form.getLimit());
+        }
 
         return selectQuery;
     }
 
+    /**
+     * A transaction has the start and (possibly multiple) stop events. Querying the tables of the events separately
+     * allows the usage of their event_timestamp indexes, which is not possible with the transaction view.
+     */
+    private Select<Record1<Integer>> getTransactionPksWithEventsSince(LocalDateTime since) {
+        DateTime sinceDateTime = since.toDateTime();
+        return DSL.select(TRANSACTION_START.TRANSACTION_PK)
+                  .from(TRANSACTION_START)
+                  .where(TRANSACTION_START.EVENT_TIMESTAMP.greaterOrEqual(sinceDateTime))
+                  .union(DSL.select(TRANSACTION_STOP.TRANSACTION_PK)
+                            .from(TRANSACTION_STOP)
+                            .where(TRANSACTION_STOP.EVENT_TIMESTAMP.greaterOrEqual(sinceDateTime)));
+    }
+
     private void processType(SelectQuery selectQuery, TransactionQueryForm form) {
         switch (form.getPeriodType()) {
             case TODAY:
@@ -18,18 +18,24 @@
  */
 package de.rwth.idsg.steve.service;
 
+import de.rwth.idsg.steve.ocpp.CommunicationTask;
 import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
 /**
+ * Every charge point is submitted to the executor separately, so that the requests are sent in parallel (bounded by
+ * the size of the executor).
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 08.03.2018
  */
+@Slf4j
 @RequiredArgsConstructor
 public class BackgroundService {
     private final ExecutorService executorService;
@@ -38,12 +44,12 @@ public class BackgroundService {
         return new BackgroundService(executorService);
     }
 
-    public Runner forFirst(List<ChargePointSelect> list) {
-        return new BackgroundSingleRunner(list.get(0));
+    public Runner forFirst(CommunicationTask<?, ?> task) {
+        return new BackgroundSingleRunner(task);
     }
 
-    public Runner forEach(List<ChargePointSelect> list) {
-        return new BackgroundListRunner(list);
+    public Runner forEach(CommunicationTask<?, ?> task) {
+        return new BackgroundListRunner(task);
     }
 
     public interface Runner {
@@ -52,21 +58,45 @@ public class BackgroundService {
 
     @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
     private class BackgroundSingleRunner implements Runner {
-        private final ChargePointSelect cps;
+        private final CommunicationTask<?, ?> task;
 
         @Override
         public void execute(Consumer<ChargePointSelect> consumer) {
-            executorService.execute(() -> consumer.accept(cps));
+            ChargePointSelect cps = task.getParams().getChargePointSelectList().get(0);
+            executorService.execute(() -> send(task, cps, consumer));
         }
     }
 
     @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
     private class BackgroundListRunner implements Runner {
-        private final List<ChargePointSelect> list;
+        private final CommunicationTask<?, ?> task;
 
         @Override
         public void execute(Consumer<ChargePointSelect> consumer) {
-            executorService.execute(() -> list.forEach(consumer));
+            List<ChargePointSelect> list = task.getParams().getChargePointSelectList();
+            for (ChargePointSelect cps : list) {
+                executorService.execute(() -> send(task, cps, consumer));
+            }
+        }
+    }
+
+    /**
+     * If sending fails before the request leaves us, the invoker does not call the callbacks. We do it here, so that
+     * the task does not wait for this charge point forever.
+     *
+     * The sent requests of JSON charge points are counted by the invoker, since it handles the failures of sending
+     * itself and does not throw. For SOAP, the asynchronous call has handed the request over to CXF, if it returns.
+     */
+    private static void send(CommunicationTask<?, ?> task, ChargePointSelect cps,
+                             Consumer<ChargePointSelect> consumer) {
+        try {
+            consumer.accept(cps);
+            if (cps.isSoap()) {
+                task.incrementSentCount();
+            }
+        } catch (Exception e) {
+            log.error("Failed to send '{}' to chargeBoxId '{}'", task.getOperationName(), cps.getChargeBoxId(), e);
+            task.defaultCallback().failed(cps.getChargeBoxId(), e);
         }
     }
 }
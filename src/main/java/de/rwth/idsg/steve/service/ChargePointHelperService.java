@@ -23,7 +23,11 @@ import de.rwth.idsg.steve.ocpp.OcppProtocol;
 import de.rwth.idsg.steve.ocpp.OcppTransport;
 import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.ocpp.ws.AbstractWebSocketEndpoint;
+import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
+import de.rwth.idsg.steve.ocpp.ws.HandshakeAdmissionController;
+import de.rwth.idsg.steve.ocpp.ws.StationMessageExecutor;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLiveness;
 import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12WebSocketEndpoint;
 import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15WebSocketEndpoint;
 import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16WebSocketEndpoint;
@@ -44,6 +48,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -54,6 +59,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
@@ -69,6 +76,7 @@ public class ChargePointHelperService {
 
     private final boolean autoRegisterUnknownStations = CONFIG.getOcpp().isAutoRegisterUnknownStations();
     private final Striped<Lock> isRegisteredLocks = Striped.lock(16);
+    private final int statsRefreshInterval = CONFIG.getOcpp().getStatsRefreshIntervalInSeconds();
 
     @Autowired private GenericRepository genericRepository;
 
@@ -79,32 +87,52 @@ public class ChargePointHelperService {
     @Autowired private Ocpp12WebSocketEndpoint ocpp12WebSocketEndpoint;
     @Autowired private Ocpp15WebSocketEndpoint ocpp15WebSocketEndpoint;
     @Autowired private Ocpp16WebSocketEndpoint ocpp16WebSocketEndpoint;
+    @Autowired private FutureResponseContextStore futureResponseContextStore;
+    @Autowired private StationMessageExecutor stationMessageExecutor;
+    @Autowired private HandshakeAdmissionController handshakeAdmissionController;
+    @Autowired private ScheduledExecutorService executorService;
 
     private final UnidentifiedIncomingObjectService unknownChargePointService = new UnidentifiedIncomingObjectService(100);
 
+    // The statistics that are read from database. Refreshed in the background, such that the requests of the home
+    // page do not run the queries. The in-memory values (sessions, queues etc.) are always added per request.
+    private volatile Statistics dbStatsSnapshot;
+
+    @PostConstruct
+    private void init() {
+        if (statsRefreshInterval > 0) {
+            executorService.scheduleWithFixedDelay(
+                    this::refreshDbStats, statsRefreshInterval, statsRefreshInterval, TimeUnit.SECONDS);
+        }
+    }
+
     public Optional<RegistrationStatus> getRegistrationStatus(String chargeBoxId) {
-        Lock l = isRegisteredLocks.get(chargeBoxId);
-        l.lock();
-        try {
-            Optional<RegistrationStatus> status = getRegistrationStatusInternal(chargeBoxId);
-            if (status.isEmpty()) {
-                unknownChargePointService.processNewUnidentified(chargeBoxId);
-            }
-            return status;
-        } finally {
-            l.unlock();
+        // the lookup is cached by the repository, therefore we lock only for the auto-registration
+        Optional<String> dbStatus = chargePointRepository.getRegistrationStatus(chargeBoxId);
+
+        Optional<RegistrationStatus> status = dbStatus.isPresent() || !autoRegisterUnknownStations
+                ? toRegistrationStatus(dbStatus)
+                : getOrAutoRegister(chargeBoxId);
+
+        if (status.isEmpty()) {
+            unknownChargePointService.processNewUnidentified(chargeBoxId);
         }
+        return status;
     }
 
     public Statistics getStats() {
-        Statistics stats = genericRepository.getStats();
+        Statistics stats = getDbStats();
         stats.setNumOcpp12JChargeBoxes(ocpp12WebSocketEndpoint.getNumberOfChargeBoxes());
         stats.setNumOcpp15JChargeBoxes(ocpp15WebSocketEndpoint.getNumberOfChargeBoxes());
         stats.setNumOcpp16JChargeBoxes(ocpp16WebSocketEndpoint.getNumberOfChargeBoxes());
-
-        List<ConnectorStatus> latestList = chargePointRepository.getChargePointConnectorStatus();
-        stats.setStatusCountMap(ConnectorStatusCountFilter.getStatusCountMap(latestList));
-
+        stats.setNumPendingResponses(futureResponseContextStore.getPendingCount());
+        stats.setNumTimedOutResponses(futureResponseContextStore.getTimeoutCount());
+        stats.setNumQueuedMessages(stationMessageExecutor.getQueuedCount());
+        stats.setMaxQueueDepth(stationMessageExecutor.getMaxQueueDepth());
+        stats.setNumOverloadedMessages(stationMessageExecutor.getOverloadCount());
+        stats.setNumAdmittedHandshakes(handshakeAdmissionController.getAdmittedCount());
+        stats.setNumThrottledHandshakes(handshakeAdmissionController.getThrottledCount());
+        stats.setNumSaturatedHandshakes(handshakeAdmissionController.getSaturatedCount());
         return stats;
     }
 
@@ -184,32 +212,74 @@ public class ChargePointHelperService {
     // Helpers
     // -------------------------------------------------------------------------
 
-    private Optional<RegistrationStatus> getRegistrationStatusInternal(String chargeBoxId) {
-        // 1. exit if already registered
-        Optional<String> status = chargePointRepository.getRegistrationStatus(chargeBoxId);
-        if (status.isPresent()) {
-            try {
-                return Optional.ofNullable(RegistrationStatus.fromValue(status.get()));
-            } catch (Exception e) {
-                // in cases where the database entry (string) is altered, and therefore cannot be converted to enum
-                log.error("Exception happened", e);
-                return Optional.empty();
-            }
+    /**
+     * Returns a copy, since the caller sets the in-memory values and the snapshot is shared between the requests.
+     */
+    private Statistics getDbStats() {
+        if (statsRefreshInterval <= 0) {
+            return loadDbStats();
         }
 
-        // 2. ok, this chargeBoxId is unknown. exit if auto-register is disabled
-        if (!autoRegisterUnknownStations) {
-            return Optional.empty();
+        Statistics snapshot = dbStatsSnapshot;
+        if (snapshot == null) {
+            // first request before the first refresh
+            snapshot = loadDbStats();
+            dbStatsSnapshot = snapshot;
+        }
+        return snapshot.toBuilder().build();
+    }
+
+    private void refreshDbStats() {
+        try {
+            dbStatsSnapshot = loadDbStats();
+        } catch (Exception e) {
+            // do not let it propagate, otherwise the executor stops the subsequent refreshes
+            log.error("Failed to refresh the statistics", e);
         }
+    }
+
+    private Statistics loadDbStats() {
+        Statistics stats = genericRepository.getStats();
+
+        List<ConnectorStatus> latestList = chargePointRepository.getChargePointConnectorStatus();
+        stats.setStatusCountMap(ConnectorStatusCountFilter.getStatusCountMap(latestList));
 
-        // 3. chargeBoxId is unknown and auto-register is enabled. insert chargeBoxId
+        return stats;
+    }
+
+    private Optional<RegistrationStatus> getOrAutoRegister(String chargeBoxId) {
+        Lock l = isRegisteredLocks.get(chargeBoxId);
+        l.lock();
         try {
+            // 1. exit if registered in the meantime. the cache might still have the negative entry, therefore bypass it
+            Optional<String> status = chargePointRepository.getRegistrationStatusFromDatabase(chargeBoxId);
+            if (status.isPresent()) {
+                return toRegistrationStatus(status);
+            }
+
+            // 2. chargeBoxId is unknown and auto-register is enabled. insert chargeBoxId (which invalidates the cache)
             chargePointRepository.addChargePointList(Collections.singletonList(chargeBoxId));
             log.warn("Auto-registered unknown chargebox '{}'", chargeBoxId);
             return Optional.of(RegistrationStatus.ACCEPTED); // default db value is accepted
+
         } catch (Exception e) {
             log.error("Failed to auto-register unknown chargebox '" + chargeBoxId + "'", e);
             return Optional.empty();
+        } finally {
+            l.unlock();
+        }
+    }
+
+    private static Optional<RegistrationStatus> toRegistrationStatus(Optional<String> status) {
+        if (status.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(RegistrationStatus.fromValue(status.get()));
+        } catch (Exception e) {
+            // in cases where the database entry (string) is altered, and therefore cannot be converted to enum
+            log.error("Exception happened", e);
+            return Optional.empty();
         }
     }
 
@@ -252,6 +322,8 @@ public class ChargePointHelperService {
 
             for (SessionContext ctx : endpointDeque) {
                 DateTime openSince = ctx.getOpenSince();
+                SessionLiveness liveness = ctx.getLiveness();
+                long roundTripMillis = liveness.getRoundTripMillis();
 
                 OcppJsonStatus status = OcppJsonStatus.builder()
                                                       .chargeBoxPk(primaryKeyLookup.get(chargeBoxId))
@@ -260,6 +332,8 @@ public class ChargePointHelperService {
                                                       .connectedSince(DateTimeUtils.humanize(openSince))
                                                       .connectionDuration(DateTimeUtils.timeElapsed(openSince, now))
                                                       .version(version)
+                                                      .roundTripMillis(roundTripMillis < 0 ? null : roundTripMillis)
+                                                      .missedPongs(liveness.getMissedPongs())
                                                       .build();
 
                 returnList.add(status);
@@ -45,7 +45,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -55,7 +55,7 @@ import java.util.concurrent.ScheduledExecutorService;
 @Qualifier("ChargePointService12_Client")
 public class ChargePointService12_Client {
 
-    @Autowired protected ScheduledExecutorService executorService;
+    @Autowired @Qualifier("fanOutExecutor") protected ExecutorService executorService;
     @Autowired protected TaskStore taskStore;
 
     @Autowired private ChargePointService12_InvokerImpl invoker12;
@@ -76,7 +76,7 @@ public class ChargePointService12_Client {
         ChangeAvailabilityTask task = new ChangeAvailabilityTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp12Invoker().changeAvailability(c, task));
 
         return taskStore.add(task);
@@ -86,7 +86,7 @@ public class ChargePointService12_Client {
         ChangeConfigurationTask task = new ChangeConfigurationTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp12Invoker().changeConfiguration(c, task));
 
         return taskStore.add(task);
@@ -96,7 +96,7 @@ public class ChargePointService12_Client {
         ClearCacheTask task = new ClearCacheTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp12Invoker().clearCache(c, task));
 
         return taskStore.add(task);
@@ -106,7 +106,7 @@ public class ChargePointService12_Client {
         GetDiagnosticsTask task = new GetDiagnosticsTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp12Invoker().getDiagnostics(c, task));
 
         return taskStore.add(task);
@@ -116,7 +116,7 @@ public class ChargePointService12_Client {
         ResetTask task = new ResetTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp12Invoker().reset(c, task));
 
         return taskStore.add(task);
@@ -126,7 +126,7 @@ public class ChargePointService12_Client {
         UpdateFirmwareTask task = new UpdateFirmwareTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp12Invoker().updateFirmware(c, task));
 
         return taskStore.add(task);
@@ -140,7 +140,7 @@ public class ChargePointService12_Client {
         RemoteStartTransactionTask task = new RemoteStartTransactionTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forFirst(task.getParams().getChargePointSelectList())
+                         .forFirst(task)
                          .execute(c -> getOcpp12Invoker().remoteStartTransaction(c, task));
 
         return taskStore.add(task);
@@ -150,7 +150,7 @@ public class ChargePointService12_Client {
         RemoteStopTransactionTask task = new RemoteStopTransactionTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forFirst(task.getParams().getChargePointSelectList())
+                         .forFirst(task)
                          .execute(c -> getOcpp12Invoker().remoteStopTransaction(c, task));
 
         return taskStore.add(task);
@@ -160,7 +160,7 @@ public class ChargePointService12_Client {
         UnlockConnectorTask task = new UnlockConnectorTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forFirst(task.getParams().getChargePointSelectList())
+                         .forFirst(task)
                          .execute(c -> getOcpp12Invoker().unlockConnector(c, task));
 
         return taskStore.add(task);
@@ -81,7 +81,7 @@ public class ChargePointService15_Client extends ChargePointService12_Client {
         DataTransferTask task = new DataTransferTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp15Invoker().dataTransfer(c, task));
 
         return taskStore.add(task);
@@ -91,7 +91,7 @@ public class ChargePointService15_Client extends ChargePointService12_Client {
         GetConfigurationTask task = new GetConfigurationTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp15Invoker().getConfiguration(c, task));
 
         return taskStore.add(task);
@@ -101,7 +101,7 @@ public class ChargePointService15_Client extends ChargePointService12_Client {
         GetLocalListVersionTask task = new GetLocalListVersionTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp15Invoker().getLocalListVersion(c, task));
 
         return taskStore.add(task);
@@ -111,7 +111,7 @@ public class ChargePointService15_Client extends ChargePointService12_Client {
         SendLocalListTask task = new SendLocalListTask(getVersion(), params, ocppTagService);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp15Invoker().sendLocalList(c, task));
 
         return taskStore.add(task);
@@ -139,7 +139,7 @@ public class ChargePointService15_Client extends ChargePointService12_Client {
         ReserveNowTask task = new ReserveNowTask(getVersion(), enhancedParams, reservationRepository);
 
         BackgroundService.with(executorService)
-                         .forFirst(task.getParams().getChargePointSelectList())
+                         .forFirst(task)
                          .execute(c -> getOcpp15Invoker().reserveNow(c, task));
 
         return taskStore.add(task);
@@ -149,7 +149,7 @@ public class ChargePointService15_Client extends ChargePointService12_Client {
         CancelReservationTask task = new CancelReservationTask(getVersion(), params, reservationRepository);
 
         BackgroundService.with(executorService)
-                         .forFirst(task.getParams().getChargePointSelectList())
+                         .forFirst(task)
                          .execute(c -> getOcpp15Invoker().cancelReservation(c, task));
 
         return taskStore.add(task);
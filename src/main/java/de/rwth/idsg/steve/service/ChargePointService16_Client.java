@@ -80,7 +80,7 @@ public class ChargePointService16_Client extends ChargePointService15_Client {
         TriggerMessageTask task = new TriggerMessageTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp16Invoker().triggerMessage(c, task));
 
         return taskStore.add(task);
@@ -95,7 +95,7 @@ public class ChargePointService16_Client extends ChargePointService15_Client {
         SetChargingProfileTask task = new SetChargingProfileTask(getVersion(), enhancedParams, chargingProfileRepository);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp16Invoker().setChargingProfile(c, task));
 
         return taskStore.add(task);
@@ -105,7 +105,7 @@ public class ChargePointService16_Client extends ChargePointService15_Client {
         ClearChargingProfileTask task = new ClearChargingProfileTask(getVersion(), params, chargingProfileRepository);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp16Invoker().clearChargingProfile(c, task));
 
         return taskStore.add(task);
@@ -115,7 +115,7 @@ public class ChargePointService16_Client extends ChargePointService15_Client {
         GetCompositeScheduleTask task = new GetCompositeScheduleTask(getVersion(), params);
 
         BackgroundService.with(executorService)
-                         .forEach(task.getParams().getChargePointSelectList())
+                         .forEach(task)
                          .execute(c -> getOcpp16Invoker().getCompositeSchedule(c, task));
 
         return taskStore.add(task);
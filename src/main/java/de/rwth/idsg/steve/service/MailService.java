@@ -22,11 +22,11 @@ import com.google.common.base.Strings;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.repository.dto.MailSettings;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
 import jakarta.mail.Authenticator;
 import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
@@ -37,9 +37,6 @@ import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import java.util.Properties;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -52,31 +49,14 @@ public class MailService {
     @Autowired private SettingsRepository settingsRepository;
     @Autowired private ScheduledExecutorService executorService;
 
-    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    private final Lock readLock = readWriteLock.readLock();
-    private final Lock writeLock = readWriteLock.writeLock();
-
-    private MailSettings settings;
-    private Session session;
-
-    @PostConstruct
-    public void loadSettingsFromDB() {
-        writeLock.lock();
-        try {
-            settings = settingsRepository.getMailSettings();
-        } finally {
-            writeLock.unlock();
-        }
-        session = createSession(getSettings());
-    }
+    // The session is derived from the settings, and recreated when the settings change
+    private volatile SessionHolder sessionHolder;
 
+    /**
+     * The settings repository holds the current snapshot, which is replaced as a whole when the settings change
+     */
     public MailSettings getSettings() {
-        readLock.lock();
-        try {
-            return this.settings;
-        } finally {
-            readLock.unlock();
-        }
+        return settingsRepository.getMailSettings();
     }
 
     public void sendTestMail() {
@@ -99,6 +79,7 @@ public class MailService {
 
     public void send(String subject, String body) throws MessagingException {
         MailSettings settings = getSettings();
+        Session session = getSession(settings);
 
         Message mail = new MimeMessage(session);
         mail.setSubject("[SteVe] " + subject);
@@ -119,6 +100,16 @@ public class MailService {
     // Private helpers
     // -------------------------------------------------------------------------
 
+    private Session getSession(MailSettings settings) {
+        SessionHolder holder = sessionHolder;
+        // identity check is enough, since every change of the settings results in a new instance
+        if (holder == null || holder.settings != settings) {
+            holder = new SessionHolder(settings, createSession(settings));
+            sessionHolder = holder;
+        }
+        return holder.session;
+    }
+
     private static Session createSession(MailSettings settings) {
         Properties props = new Properties();
         String protocol = settings.getProtocol();
@@ -154,4 +145,10 @@ public class MailService {
             }
         };
     }
+
+    @RequiredArgsConstructor
+    private static final class SessionHolder {
+        private final MailSettings settings;
+        private final Session session;
+    }
 }
@@ -19,14 +19,21 @@
 package de.rwth.idsg.steve.service;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.repository.OcppTagRepository;
 import de.rwth.idsg.steve.repository.SettingsRepository;
+import de.rwth.idsg.steve.repository.TransactionRepository;
 import de.rwth.idsg.steve.repository.dto.OcppTag;
 import de.rwth.idsg.steve.service.dto.UnidentifiedIncomingObject;
+import de.rwth.idsg.steve.service.notification.OcppTransactionEnded;
+import de.rwth.idsg.steve.service.notification.OcppTransactionStarted;
 import de.rwth.idsg.steve.web.dto.OcppTagForm;
 import de.rwth.idsg.steve.web.dto.OcppTagQueryForm;
 import jooq.steve.db.tables.records.OcppTagActivityRecord;
+import lombok.Builder;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cp._2015._10.AuthorizationData;
@@ -34,12 +41,19 @@ import ocpp.cs._2015._10.AuthorizationStatus;
 import ocpp.cs._2015._10.IdTagInfo;
 import org.jetbrains.annotations.Nullable;
 import org.joda.time.DateTime;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Supplier;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 03.01.2015
@@ -51,8 +65,29 @@ public class OcppTagService {
 
     private final UnidentifiedIncomingObjectService invalidOcppTagService = new UnidentifiedIncomingObjectService(1000);
 
+    /**
+     * The data that decides about the authorization of a tag. Empty, if the tag is not in database.
+     *
+     * The entries are invalidated whenever a tag or its transactions change. The expiry is only a safety net for
+     * changes that bypass this service (e.g. manual changes in database).
+     */
+    private final Cache<String, Optional<TagActivity>> authCache =
+            CacheBuilder.newBuilder()
+                        .maximumSize(CONFIG.getOcpp().getOcppTagCacheSize())
+                        .expireAfterWrite(10, TimeUnit.MINUTES)
+                        .build();
+
+    /**
+     * Incremented with every invalidation, such that a lookup which started before it does not leave its stale result
+     * in the cache. Striped by the hash of the idTag to bound the memory, and the last one is for the invalidations
+     * by primary key, which do not know the idTag.
+     */
+    private static final int VERSION_STRIPES = 1024;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES + 1);
+
     private final SettingsRepository settingsRepository;
     private final OcppTagRepository ocppTagRepository;
+    private final TransactionRepository transactionRepository;
 
     public List<OcppTag.Overview> getOverview(OcppTagQueryForm form) {
         return ocppTagRepository.getOverview(form);
@@ -102,7 +137,7 @@ public class OcppTagService {
             return null;
         }
 
-        OcppTagActivityRecord record = ocppTagRepository.getRecord(idTag);
+        TagActivity record = getTagActivity(idTag);
         AuthorizationStatus status = decideStatus(record, idTag, isStartTransactionReqContext);
 
         switch (status) {
@@ -139,30 +174,105 @@ public class OcppTagService {
     public int addOcppTag(OcppTagForm form) {
         var id = ocppTagRepository.addOcppTag(form);
         removeUnknown(Collections.singletonList(form.getIdTag()));
+        invalidateIdTag(form.getIdTag());
         return id;
     }
     public void addOcppTagList(List<String> idTagList) {
         ocppTagRepository.addOcppTagList(idTagList);
         removeUnknown(idTagList);
+        idTagList.forEach(this::invalidateIdTag);
     }
 
     public void updateOcppTag(OcppTagForm form) {
         ocppTagRepository.updateOcppTag(form);
+        invalidateCache(form.getOcppTagPk());
     }
 
     public void deleteOcppTag(int ocppTagPk) {
         ocppTagRepository.deleteOcppTag(ocppTagPk);
+        invalidateCache(ocppTagPk);
+    }
+
+    // -------------------------------------------------------------------------
+    // Transaction events, which change the number of active transactions
+    // -------------------------------------------------------------------------
+
+    /**
+     * Also covers unknown tags, which are inserted into database with the transaction
+     */
+    @EventListener
+    public void transactionStarted(OcppTransactionStarted notification) {
+        invalidateIdTag(notification.getParams().getIdTag());
+    }
+
+    @EventListener
+    public void transactionEnded(OcppTransactionEnded notification) {
+        // always, even if nothing is cached: a lookup in progress must see the new version, since it might have read
+        // the tag before the stop was committed
+        String idTag = transactionRepository.getIdTag(notification.getParams().getTransactionId());
+        transactionStopped(idTag);
+    }
+
+    public void transactionStopped(@Nullable String idTag) {
+        if (idTag != null) {
+            invalidateIdTag(idTag);
+        }
     }
 
     // -------------------------------------------------------------------------
     // Private helpers
     // -------------------------------------------------------------------------
 
+    @Nullable
+    private TagActivity getTagActivity(String idTag) {
+        long versionBefore = getVersion(idTag);
+
+        Optional<TagActivity> activity;
+        try {
+            // concurrent requests for the same tag wait for one database lookup
+            activity = authCache.get(idTag,
+                    () -> Optional.ofNullable(TagActivity.from(ocppTagRepository.getRecord(idTag))));
+        } catch (ExecutionException e) {
+            throw new SteveException("Failed to get the record of idTag '%s'", idTag, e.getCause());
+        }
+
+        // the load might have been stored after an invalidation in the meantime, and might be stale. remove it again.
+        // an invalidation after this check removes it anyway.
+        if (getVersion(idTag) != versionBefore) {
+            authCache.invalidate(idTag);
+        }
+        return activity.orElse(null);
+    }
+
+    private void invalidateIdTag(String idTag) {
+        versions.incrementAndGet(getStripe(idTag));
+        authCache.invalidate(idTag);
+    }
+
+    /**
+     * Updates and deletions only know the primary key. Since they happen rarely, scanning the cache is fine.
+     */
+    private void invalidateCache(@Nullable Integer ocppTagPk) {
+        if (ocppTagPk != null) {
+            versions.incrementAndGet(VERSION_STRIPES);
+            authCache.asMap().values().removeIf(t -> t.isPresent() && t.get().getOcppTagPk() == ocppTagPk);
+        }
+    }
+
+    private long getVersion(String idTag) {
+        // both only increase, so that the sum changes whenever one of them changes
+        return versions.get(getStripe(idTag)) + versions.get(VERSION_STRIPES);
+    }
+
+    private static int getStripe(String idTag) {
+        return Math.floorMod(idTag.hashCode(), VERSION_STRIPES);
+    }
+
     /**
      * If the database contains an actual expiry, use it. Otherwise, calculate an expiry for cached info
      */
     @Nullable
-    private DateTime getExpiryDateOrDefault(OcppTagActivityRecord record) {
+    private DateTime getExpiryDateOrDefault(TagActivity record) {
         if (record.getExpiryDate() != null) {
             return record.getExpiryDate();
         }
@@ -177,7 +287,7 @@ public class OcppTagService {
         }
     }
 
-    private AuthorizationStatus decideStatus(OcppTagActivityRecord record, String idTag, boolean isStartTransactionReqContext) {
+    private AuthorizationStatus decideStatus(TagActivity record, String idTag, boolean isStartTransactionReqContext) {
         if (record == null) {
             log.error("The user with idTag '{}' is INVALID (not present in DB).", idTag);
             return AuthorizationStatus.INVALID;
@@ -206,7 +316,7 @@ public class OcppTagService {
     /**
      * ConcurrentTx is only valid for StartTransactionRequest
      */
-    private static ocpp.cp._2015._10.AuthorizationStatus decideStatusForAuthData(OcppTagActivityRecord record, DateTime now) {
+    private static ocpp.cp._2015._10.AuthorizationStatus decideStatusForAuthData(TagActivity record, DateTime now) {
         if (isBlocked(record)) {
             return ocpp.cp._2015._10.AuthorizationStatus.BLOCKED;
         } else if (isExpired(record, now)) {
@@ -218,16 +328,16 @@ public class OcppTagService {
         }
     }
 
-    private static boolean isExpired(OcppTagActivityRecord record, DateTime now) {
+    private static boolean isExpired(TagActivity record, DateTime now) {
         DateTime expiry = record.getExpiryDate();
         return expiry != null && now.isAfter(expiry);
     }
 
-    private static boolean isBlocked(OcppTagActivityRecord record) {
+    private static boolean isBlocked(TagActivity record) {
         return record.getMaxActiveTransactionCount() == 0;
     }
 
-    private static boolean reachedLimitOfActiveTransactions(OcppTagActivityRecord record) {
+    private static boolean reachedLimitOfActiveTransactions(TagActivity record) {
         int max = record.getMaxActiveTransactionCount();
 
         // blocked
@@ -248,9 +358,38 @@ public class OcppTagService {
         return new AuthorizationData().withIdTag(record.getIdTag())
                                       .withIdTagInfo(
                                               new ocpp.cp._2015._10.IdTagInfo()
-                                                      .withStatus(decideStatusForAuthData(record, nowDt))
+                                                      .withStatus(decideStatusForAuthData(TagActivity.from(record), nowDt))
                                                       .withParentIdTag(record.getParentIdTag())
                                                       .withExpiryDate(record.getExpiryDate())
                                       );
     }
+
+    /**
+     * The immutable subset of OcppTagActivityRecord that we need for authorization decisions
+     */
+    @Getter
+    @Builder
+    private static final class TagActivity {
+        private final int ocppTagPk;
+        private final String idTag;
+        private final String parentIdTag;
+        private final DateTime expiryDate;
+        private final int maxActiveTransactionCount;
+        private final long activeTransactionCount;
+
+        @Nullable
+        private static TagActivity from(@Nullable OcppTagActivityRecord record) {
+            if (record == null) {
+                return null;
+            }
+            return TagActivity.builder()
+                              .ocppTagPk(record.getOcppTagPk())
+                              .idTag(record.getIdTag())
+                              .parentIdTag(record.getParentIdTag())
+                              .expiryDate(record.getExpiryDate())
+                              .maxActiveTransactionCount(record.getMaxActiveTransactionCount())
+                              .activeTransactionCount(record.getActiveTransactionCount())
+                              .build();
+        }
+    }
 }
@@ -23,6 +23,7 @@ import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.repository.TransactionRepository;
 import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
+import de.rwth.idsg.steve.repository.dto.TransactionMeterValueSummary;
 import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
 import de.rwth.idsg.steve.utils.TransactionStopServiceHelper;
 import jooq.steve.db.enums.TransactionStopEventActor;
@@ -49,6 +50,7 @@ public class TransactionStopService {
 
     @Autowired private TransactionRepository transactionRepository;
     @Autowired private OcppServerRepository ocppServerRepository;
+    @Autowired private OcppTagService ocppTagService;
 
     public void stop(List<Integer> transactionPkList) {
         transactionPkList.stream()
@@ -57,15 +59,14 @@ public class TransactionStopService {
     }
 
     public void stop(Integer transactionPk) {
-        TransactionDetails thisTxDetails = transactionRepository.getDetails(transactionPk, false);
-        Transaction thisTx = thisTxDetails.getTransaction();
+        Transaction thisTx = transactionRepository.getTransaction(transactionPk);
 
         // early exit, if transaction is already stopped
         if (thisTx.getStopValue() != null && thisTx.getStopTimestamp() != null) {
             return;
         }
 
-        TerminationValues values = findNeededValues(thisTxDetails);
+        TerminationValues values = findNeededValues(transactionPk);
 
         ocppServerRepository.updateTransaction(UpdateTransactionParams.builder()
                                                                       .transactionId(thisTx.getId())
@@ -75,6 +76,31 @@ public class TransactionStopService {
                                                                       .eventActor(TransactionStopEventActor.manual)
                                                                       .eventTimestamp(DateTime.now())
                                                                       .build());
+
+        ocppTagService.transactionStopped(thisTx.getOcppIdTag());
+    }
+
+    /**
+     * Note: The summary contains only the meter values that were sent with the id of this transaction. The scan of
+     * the details also includes the values of the connector without a transaction id, which were sent in the time
+     * window of the transaction. Therefore, if a station does not send the transaction id with its meter values, the
+     * stop value is found with the scan as before. But if it does, the values without a transaction id are ignored,
+     * even if they are newer.
+     */
+    private TerminationValues findNeededValues(int transactionPk) {
+        // -------------------------------------------------------------------------
+        // 0. the summary of the meter values has the last energy value without scanning all values
+        // -------------------------------------------------------------------------
+
+        TransactionMeterValueSummary summary = transactionRepository.getMeterValueSummary(transactionPk);
+        if (summary != null && summary.getLastEnergyValue() != null) {
+            return TerminationValues.builder()
+                                    .stopValue(floatingStringToIntString(summary.getLastEnergyValue().toString()))
+                                    .stopTimestamp(summary.getLastEnergyTimestamp())
+                                    .build();
+        }
+
+        return findNeededValues(transactionRepository.getDetails(transactionPk, false));
     }
 
     private static TerminationValues findNeededValues(TransactionDetails thisTxDetails) {
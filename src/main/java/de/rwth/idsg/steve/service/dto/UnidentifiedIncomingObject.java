@@ -18,10 +18,13 @@
  */
 package de.rwth.idsg.steve.service.dto;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.ToString;
 import org.joda.time.DateTime;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 20.03.2018
@@ -31,15 +34,23 @@ import org.joda.time.DateTime;
 public class UnidentifiedIncomingObject {
 
     private final String key;
-    private int numberOfAttempts = 0;
-    private DateTime lastAttemptTimestamp;
+    @Getter(AccessLevel.NONE) private final AtomicInteger numberOfAttempts = new AtomicInteger(0);
+    private volatile DateTime lastAttemptTimestamp;
 
     public UnidentifiedIncomingObject(String key) {
         this.key = key;
     }
 
-    public synchronized void updateStats() {
-        numberOfAttempts++;
+    public int getNumberOfAttempts() {
+        return numberOfAttempts.get();
+    }
+
+    /**
+     * Lock-free, since the stats are only informative: the timestamp of concurrent attempts may be the one of
+     * either attempt.
+     */
+    public void updateStats() {
+        numberOfAttempts.incrementAndGet();
         lastAttemptTimestamp = DateTime.now();
     }
 }
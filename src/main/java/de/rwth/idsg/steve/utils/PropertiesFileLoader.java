@@ -128,6 +128,11 @@ public class PropertiesFileLoader {
         }
     }
 
+    public int getOptionalInt(String key, int fallback) {
+        Integer i = getOptionalInt(key);
+        return (i == null) ? fallback : i;
+    }
+
     // -------------------------------------------------------------------------
     // Private helpers
     // -------------------------------------------------------------------------
@@ -0,0 +1,108 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.rwth.idsg.steve.ExecutionModel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Creates the threads of our pools according to the configured execution model.
+ *
+ * The project is compiled for Java 11. Therefore, the virtual thread API of JDK 21 is accessed via reflection.
+ *
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+@Slf4j
+public final class ThreadFactories {
+
+    private static final boolean VIRTUAL_THREADS = initVirtualThreads();
+
+    private ThreadFactories() { }
+
+    /**
+     * Whether the blocking work runs on virtual threads
+     */
+    public static boolean useVirtualThreads() {
+        return VIRTUAL_THREADS;
+    }
+
+    /**
+     * For pools that run blocking work (database, outgoing SOAP calls etc.)
+     *
+     * @param nameFormat as in {@link ThreadFactoryBuilder#setNameFormat(String)}, e.g. "SteVe-Pool-%d"
+     */
+    public static ThreadFactory forBlockingWork(String nameFormat) {
+        if (VIRTUAL_THREADS) {
+            return newVirtualThreadFactory(nameFormat.replace("%d", ""));
+        } else {
+            return forTimers(nameFormat);
+        }
+    }
+
+    /**
+     * For scheduled tasks. They always run on platform threads, since they are short and few.
+     */
+    public static ThreadFactory forTimers(String nameFormat) {
+        return new ThreadFactoryBuilder().setNameFormat(nameFormat).build();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private static boolean initVirtualThreads() {
+        if (CONFIG.getExecution().getModel() != ExecutionModel.VIRTUAL) {
+            return false;
+        }
+
+        try {
+            Thread.class.getMethod("ofVirtual");
+            log.info("Virtual threads will be used for blocking work");
+            return true;
+        } catch (NoSuchMethodException e) {
+            log.warn("The execution model {} requires JDK 21+, but the JDK is {}. Falling back to {}",
+                    ExecutionModel.VIRTUAL, System.getProperty("java.version"), ExecutionModel.PLATFORM);
+            return false;
+        }
+    }
+
+    /**
+     * Thread.ofVirtual().name(prefix, 0).factory()
+     */
+    private static ThreadFactory newVirtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            Method factory = builderClass.getMethod("factory");
+
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = name.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a factory for virtual threads", e);
+        }
+    }
+}
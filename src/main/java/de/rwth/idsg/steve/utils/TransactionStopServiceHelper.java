@@ -19,6 +19,7 @@
 package de.rwth.idsg.steve.utils;
 
 import com.google.common.base.Strings;
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
 import ocpp.cs._2015._10.Measurand;
 import ocpp.cs._2015._10.UnitOfMeasure;
@@ -37,43 +38,67 @@ public class TransactionStopServiceHelper {
     }
 
     public static boolean isEnergyValue(TransactionDetails.MeterValues v) {
-        // should not happen, but check it to be safe.
-        // https://github.com/steve-community/steve/issues/249
-        if (Strings.isNullOrEmpty(v.getValue())) {
-            return false;
+        return isEnergyValue(v.getValue(), v.getReadingContext(), v.getFormat(), v.getMeasurand(), v.getLocation(),
+                v.getUnit(), v.getPhase());
+    }
+
+    public static boolean isEnergyValue(InsertMeterValuesParams.Value v) {
+        return isEnergyValue(v.getValue(), v.getReadingContext(), v.getFormat(), v.getMeasurand(), v.getLocation(),
+                v.getUnit(), v.getPhase());
+    }
+
+    /**
+     * Total active import power (i.e. not the power of a single phase) in W or kW
+     */
+    public static boolean isPowerValue(InsertMeterValuesParams.Value v) {
+        return isNumeric(v.getValue())
+            && !ValueFormat.SIGNED_DATA.value().equals(v.getFormat())
+            && Measurand.POWER_ACTIVE_IMPORT.value().equals(v.getMeasurand())
+            && isWOrKW(v.getUnit())
+            && Strings.isNullOrEmpty(v.getPhase());
+    }
+
+    /**
+     * Converts kWh to Wh and kW to W. The other units are kept as they are.
+     */
+    public static double toBaseUnit(String value, String unit) {
+        double d = Double.parseDouble(value);
+        if (UnitOfMeasure.K_WH.value().equals(unit) || UnitOfMeasure.K_W.value().equals(unit)) {
+            return d * 1000;
+        } else {
+            return d;
         }
+    }
 
-        // is it a proper numeric/decimal value?
-        try {
-            Double.parseDouble(v.getValue());
-        } catch (Exception e) {
-            // swallow the exception. we got what we wanted.
+    private static boolean isEnergyValue(String value, String readingContext, String format, String measurand,
+                                         String location, String unit, String phase) {
+        if (!isNumeric(value)) {
             return false;
         }
 
         // from 1.6 docs: "To retain backward compatibility, the default values of all of the optional fields on a
         // sampledValue element are such that a value without any additional fields will be interpreted, as a register
         // reading of active import energy in Wh (Watt-hour) units."
-        if (Strings.isNullOrEmpty(v.getReadingContext())
-            && Strings.isNullOrEmpty(v.getFormat())
-            && Strings.isNullOrEmpty(v.getMeasurand())
-            && Strings.isNullOrEmpty(v.getLocation())
-            && Strings.isNullOrEmpty(v.getUnit())
-            && Strings.isNullOrEmpty(v.getPhase())) {
+        if (Strings.isNullOrEmpty(readingContext)
+            && Strings.isNullOrEmpty(format)
+            && Strings.isNullOrEmpty(measurand)
+            && Strings.isNullOrEmpty(location)
+            && Strings.isNullOrEmpty(unit)
+            && Strings.isNullOrEmpty(phase)) {
             return true;
         }
 
         // if the format is "SignedData", we cannot make any sense of this entry. we don't know how to decode it.
         // https://github.com/steve-community/steve/issues/816
-        if (ValueFormat.SIGNED_DATA.value().equals(v.getFormat())) {
+        if (ValueFormat.SIGNED_DATA.value().equals(format)) {
             return false;
         }
 
-        if (!isWHOrKWH(v.getUnit())) {
+        if (!isWHOrKWH(unit)) {
             return false;
         }
 
-        if (!Measurand.ENERGY_ACTIVE_IMPORT_REGISTER.value().equals(v.getMeasurand())) {
+        if (!Measurand.ENERGY_ACTIVE_IMPORT_REGISTER.value().equals(measurand)) {
             return false;
         }
 
@@ -84,7 +109,28 @@ public class TransactionStopServiceHelper {
         return true;
     }
 
+    private static boolean isNumeric(String value) {
+        // should not happen, but check it to be safe.
+        // https://github.com/steve-community/steve/issues/249
+        if (Strings.isNullOrEmpty(value)) {
+            return false;
+        }
+
+        // is it a proper numeric/decimal value?
+        try {
+            Double.parseDouble(value);
+        } catch (Exception e) {
+            // swallow the exception. we got what we wanted.
+            return false;
+        }
+        return true;
+    }
+
     private static boolean isWHOrKWH(String str) {
         return UnitOfMeasure.WH.value().equals(str) || UnitOfMeasure.K_WH.value().equals(str);
     }
+
+    private static boolean isWOrKW(String str) {
+        return UnitOfMeasure.W.value().equals(str) || UnitOfMeasure.K_W.value().equals(str);
+    }
 }
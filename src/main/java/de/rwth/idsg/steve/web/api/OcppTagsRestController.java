@@ -41,6 +41,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
 
@@ -64,11 +65,17 @@ public class OcppTagsRestController {
     )
     @GetMapping(value = "")
     @ResponseBody
-    public List<OcppTag.Overview> get(OcppTagQueryForm.ForApi params) {
+    public List<OcppTag.Overview> get(@Valid OcppTagQueryForm.ForApi params, HttpServletResponse servletResponse) {
         log.debug("Read request for query: {}", params);
 
         var response = ocppTagService.getOverview(params);
         log.debug("Read response for query: {}", response);
+
+        // same as for transactions, with the value for afterOcppTagPk of the next page
+        if (response.size() == params.getLimit()) {
+            int lastPk = response.get(response.size() - 1).getOcppTagPk();
+            servletResponse.setHeader(TransactionsRestController.NEXT_PAGE_HEADER, String.valueOf(lastPk));
+        }
         return response;
     }
 
@@ -33,6 +33,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
 
@@ -46,6 +47,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TransactionsRestController {
 
+    /**
+     * Set when the page is full, with the value for afterTransactionPk of the next page. If the number of transactions
+     * is a multiple of the page size, the last page is followed by an empty one.
+     */
+    static final String NEXT_PAGE_HEADER = "X-Next-After-Pk";
+
     private final TransactionRepository transactionRepository;
 
     @ApiResponses(value = {
@@ -56,7 +63,7 @@ public class TransactionsRestController {
     )
     @GetMapping(value = "")
     @ResponseBody
-    public List<Transaction> get(@Valid TransactionQueryForm.ForApi params) {
+    public List<Transaction> get(@Valid TransactionQueryForm.ForApi params, HttpServletResponse servletResponse) {
         log.debug("Read request for query: {}", params);
 
         if (params.isReturnCSV()) {
@@ -65,6 +72,11 @@ public class TransactionsRestController {
 
         var response = transactionRepository.getTransactions(params);
         log.debug("Read response for query: {}", response);
+
+        if (response.size() == params.getLimit()) {
+            int lastPk = response.get(response.size() - 1).getId();
+            servletResponse.setHeader(NEXT_PAGE_HEADER, String.valueOf(lastPk));
+        }
         return response;
     }
 }
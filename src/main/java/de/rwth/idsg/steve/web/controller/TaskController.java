@@ -19,9 +19,6 @@
 package de.rwth.idsg.steve.web.controller;
 
 import de.rwth.idsg.steve.SteveException;
-import de.rwth.idsg.steve.ocpp.CommunicationTask;
-import de.rwth.idsg.steve.ocpp.RequestResult;
-import de.rwth.idsg.steve.ocpp.task.GetCompositeScheduleTask;
 import de.rwth.idsg.steve.ocpp.task.GetConfigurationTask;
 import de.rwth.idsg.steve.repository.TaskStore;
 import ocpp.cp._2015._10.GetCompositeScheduleResponse;
@@ -31,6 +28,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -42,6 +40,8 @@ public class TaskController {
 
     @Autowired private TaskStore taskStore;
 
+    private static final int PAGE_SIZE = 100;
+
     // -------------------------------------------------------------------------
     // Paths
     // -------------------------------------------------------------------------
@@ -54,64 +54,60 @@ public class TaskController {
     // -------------------------------------------------------------------------
 
     @RequestMapping(method = RequestMethod.GET)
-    public String getOverview(Model model) {
-        model.addAttribute("taskList", taskStore.getOverview());
+    public String getOverview(@RequestParam(value = "page", defaultValue = "1") int page, Model model) {
+        int pageCount = Math.max(1, (taskStore.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        int currentPage = Math.min(Math.max(page, 1), pageCount);
+
+        model.addAttribute("taskList", taskStore.getOverview((currentPage - 1) * PAGE_SIZE, PAGE_SIZE));
+        model.addAttribute("page", currentPage);
+        model.addAttribute("pageCount", pageCount);
         return "tasks";
     }
 
     @RequestMapping(method = RequestMethod.POST)
     public String clearFinished(Model model) {
         taskStore.clearFinished();
-        return getOverview(model);
+        return getOverview(1, model);
     }
 
     @RequestMapping(value = TASK_ID_PATH, method = RequestMethod.GET)
     public String getTaskDetails(@PathVariable("taskId") Integer taskId, Model model) {
-        CommunicationTask r = taskStore.get(taskId);
+        // finished tasks might be compacted, which have the same properties for the view
         model.addAttribute("taskId", taskId);
-        model.addAttribute("task", r);
+        model.addAttribute("task", taskStore.getTaskOrSummary(taskId));
         return "taskResult";
     }
 
+    /**
+     * Only the tasks which set the details of their results have this view. The details are kept after compaction.
+     */
     @RequestMapping(value = TASK_DETAILS_PATH, method = RequestMethod.GET)
     public String getDetailsForChargeBox(@PathVariable("taskId") Integer taskId,
                                          @PathVariable("chargeBoxId") String chargeBoxId,
                                          Model model) {
 
-        CommunicationTask r = taskStore.get(taskId);
+        Object details = taskStore.getResult(taskId, chargeBoxId).getDetails();
 
-        if (r instanceof GetCompositeScheduleTask) {
-            return processForGetCompositeScheduleTask((GetCompositeScheduleTask) r, chargeBoxId, model);
-        } else if (r instanceof GetConfigurationTask) {
-            return processForGetConfigurationTask((GetConfigurationTask) r, chargeBoxId, model);
+        if (details instanceof GetCompositeScheduleResponse) {
+            return processForGetCompositeScheduleTask((GetCompositeScheduleResponse) details, chargeBoxId, model);
+        } else if (details instanceof GetConfigurationTask.ResponseWrapper) {
+            return processForGetConfigurationTask((GetConfigurationTask.ResponseWrapper) details, chargeBoxId, model);
         } else {
-            throw new SteveException("Task not found");
+            throw new SteveException("Details not found");
         }
     }
 
-    private String processForGetCompositeScheduleTask(GetCompositeScheduleTask k, String chargeBoxId, Model model) {
-        RequestResult result = extractResult(k, chargeBoxId);
-        GetCompositeScheduleResponse response = result.getDetails();
-
+    private String processForGetCompositeScheduleTask(GetCompositeScheduleResponse response, String chargeBoxId,
+                                                      Model model) {
         model.addAttribute("chargeBoxId", chargeBoxId);
         model.addAttribute("response", response);
         return "op16/GetCompositeScheduleResponse";
     }
 
-    private String processForGetConfigurationTask(GetConfigurationTask k, String chargeBoxId, Model model) {
-        RequestResult result = extractResult(k, chargeBoxId);
-        GetConfigurationTask.ResponseWrapper response = result.getDetails();
-
+    private String processForGetConfigurationTask(GetConfigurationTask.ResponseWrapper response, String chargeBoxId,
+                                                  Model model) {
         model.addAttribute("chargeBoxId", chargeBoxId);
         model.addAttribute("response", response);
         return "GetConfigurationResponse";
     }
-
-    private static RequestResult extractResult(CommunicationTask<?, ?> task, String chargeBoxId) {
-        RequestResult result = task.getResultMap().get(chargeBoxId);
-        if (result == null) {
-            throw new SteveException("Result not found");
-        }
-        return result;
-    }
 }
@@ -37,7 +37,12 @@ import org.springframework.web.bind.annotation.RequestMethod;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * One controller for transactions and reservations pages
@@ -105,12 +110,7 @@ public class TransactionsReservationsController {
         }
 
         if (params.isReturnCSV()) {
-            String fileName = "transactions.csv";
-            String headerKey = "Content-Disposition";
-            String headerValue = String.format("attachment; filename=\"%s\"", fileName);
-            response.setContentType("text/csv");
-            response.setHeader(headerKey, headerValue);
-            transactionRepository.writeTransactionsCSV(params, response.getWriter());
+            writeCSV(params, response);
             return null;
 
         } else {
@@ -143,6 +143,47 @@ public class TransactionsReservationsController {
         return "data-man/reservations";
     }
 
+    /**
+     * The rows are written to the response as they are read from database. Therefore, the export of many
+     * transactions does not require much memory.
+     */
+    private void writeCSV(TransactionQueryForm params, HttpServletResponse response) throws IOException {
+        String fileName = params.getCsvType().getFileName();
+        if (params.isGzipCSV()) {
+            fileName += ".gz";
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType("text/csv");
+        }
+
+        String headerKey = "Content-Disposition";
+        String headerValue = String.format("attachment; filename=\"%s\"", fileName);
+        response.setHeader(headerKey, headerValue);
+
+        if (params.isGzipCSV()) {
+            // closing the writer finishes the gzip stream
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(response.getOutputStream()), StandardCharsets.UTF_8))) {
+                writeCSV(params, writer);
+            }
+        } else {
+            writeCSV(params, response.getWriter());
+        }
+    }
+
+    private void writeCSV(TransactionQueryForm params, Writer writer) {
+        switch (params.getCsvType()) {
+            case TRANSACTIONS:
+                transactionRepository.writeTransactionsCSV(params, writer);
+                break;
+            case METER_VALUES:
+                transactionRepository.writeMeterValuesCSV(params, writer);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown CSV type: " + params.getCsvType());
+        }
+    }
+
     private void initList(Model model) {
         model.addAttribute("cpList", chargePointRepository.getChargeBoxIds());
         model.addAttribute("idTagList", ocppTagService.getIdTags());
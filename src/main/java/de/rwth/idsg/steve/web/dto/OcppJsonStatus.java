@@ -37,4 +37,7 @@ public final class OcppJsonStatus {
     private final String connectionDuration;
     private final OcppVersion version;
     private final DateTime connectedSinceDT;
+    // of the last ping, null until the first pong arrives
+    private final Long roundTripMillis;
+    private final int missedPongs;
 }
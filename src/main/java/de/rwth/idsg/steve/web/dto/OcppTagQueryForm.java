@@ -24,8 +24,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import javax.validation.constraints.Min;
 import java.util.Objects;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 03.09.2015
@@ -53,6 +56,16 @@ public class OcppTagQueryForm {
     @ApiModelProperty(value = "Return blocked, not blocked, or all Ocpp tags? Defaults to ALL")
     private BooleanType blocked = BooleanType.FALSE;
 
+    @ApiModelProperty(value = "Return only the OCPP tags with a greater database primary key. For paging, set it to "
+            + "the value of the X-Next-After-Pk header of the previous page. Not set for the first page")
+    private Integer afterOcppTagPk;
+
+    @ApiModelProperty(value = "Max number of OCPP tags to return. Defaults to and cannot exceed the max page size "
+            + "of the Web APIs. The OCPP tags are ordered ascending by their database primary key. If the page is "
+            + "full, the response has the X-Next-After-Pk header")
+    @Min(value = 1, message = "'Limit' must be at least {value}")
+    private Integer limit;
+
     @ApiModelProperty(hidden = true)
     public boolean isOcppTagPkSet() {
         return ocppTagPk != null;
@@ -68,6 +81,16 @@ public class OcppTagQueryForm {
         return parentIdTag != null;
     }
 
+    @ApiModelProperty(hidden = true)
+    public boolean isAfterOcppTagPkSet() {
+        return afterOcppTagPk != null;
+    }
+
+    @ApiModelProperty(hidden = true)
+    public boolean isLimitSet() {
+        return getLimit() != null;
+    }
+
     public BooleanType getExpired() {
         return Objects.requireNonNullElse(expired, BooleanType.ALL);
     }
@@ -115,6 +138,13 @@ public class OcppTagQueryForm {
             setInTransaction(BooleanType.ALL);
             setBlocked(BooleanType.ALL);
         }
+
+        @Override
+        public Integer getLimit() {
+            int max = CONFIG.getWebApi().getMaxPageSize();
+            Integer limit = super.getLimit();
+            return (limit == null) ? max : Math.min(limit, max);
+        }
     }
 
 }
@@ -31,7 +31,7 @@ import java.util.Map;
  *
  */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @ToString
 public final class Statistics {
     // Number of chargeboxes, ocppTags, users, reservations, transactions
@@ -39,9 +39,23 @@ public final class Statistics {
     // Received heartbeats
     heartbeatToday, heartbeatYesterday, heartbeatEarlier;
 
+    // When the values above were read from database
+    private final String updateTimestamp;
+
     // Number of connected WebSocket/JSON chargeboxes
     @Setter private int numOcpp12JChargeBoxes, numOcpp15JChargeBoxes, numOcpp16JChargeBoxes;
 
+    // Calls to WebSocket/JSON chargeboxes which wait for a response, and the ones that were not answered in time
+    @Setter private int numPendingResponses;
+    @Setter private long numTimedOutResponses;
+
+    // Incoming messages of WebSocket/JSON chargeboxes which wait in the per-station queues
+    @Setter private int numQueuedMessages, maxQueueDepth;
+    @Setter private long numOverloadedMessages;
+
+    // WebSocket handshakes which were admitted, rejected because of the rate limits or too many handshakes in progress
+    @Setter private long numAdmittedHandshakes, numThrottledHandshakes, numSaturatedHandshakes;
+
     // Count of connectors based on their status
     @Setter private Map<String, Integer> statusCountMap;
 }
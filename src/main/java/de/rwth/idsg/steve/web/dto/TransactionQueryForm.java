@@ -23,10 +23,14 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.joda.time.LocalDateTime;
 
 import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
 import java.util.Objects;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 31.08.2015
@@ -40,9 +44,29 @@ public class TransactionQueryForm extends QueryForm {
     @ApiModelProperty(value = "Database primary key of the transaction")
     private Integer transactionPk;
 
+    @ApiModelProperty(value = "Return only the transactions with a greater database primary key. For paging, set it to "
+            + "the value of the X-Next-After-Pk header of the previous page. Not set for the first page")
+    private Integer afterTransactionPk;
+
+    @ApiModelProperty(value = "Return only the transactions that were started or stopped at or after this date/time, "
+            + "i.e. when SteVe received the event. Format: ISO8601 without timezone. Example: `2022-10-10T09:00:00`")
+    private LocalDateTime since;
+
+    @ApiModelProperty(value = "Max number of transactions to return. Defaults to and cannot exceed the max page size "
+            + "of the Web APIs. The transactions are ordered ascending by their database primary key. If the page is "
+            + "full, the response has the X-Next-After-Pk header")
+    @Min(value = 1, message = "'Limit' must be at least {value}")
+    private Integer limit;
+
     @ApiModelProperty(value = "Disabled for the Web APIs. Do not use and set", hidden = true)
     private boolean returnCSV = false;
 
+    @ApiModelProperty(value = "Disabled for the Web APIs. Do not use and set", hidden = true)
+    private CsvType csvType = CsvType.TRANSACTIONS;
+
+    @ApiModelProperty(value = "Disabled for the Web APIs. Do not use and set", hidden = true)
+    private boolean gzipCSV = false;
+
     @ApiModelProperty(value = "Return active or all transactions? Defaults to ALL")
     private QueryType type = QueryType.ACTIVE;
 
@@ -60,6 +84,21 @@ public class TransactionQueryForm extends QueryForm {
         return transactionPk != null;
     }
 
+    @ApiModelProperty(hidden = true)
+    public boolean isAfterTransactionPkSet() {
+        return afterTransactionPk != null;
+    }
+
+    @ApiModelProperty(hidden = true)
+    public boolean isSinceSet() {
+        return since != null;
+    }
+
+    @ApiModelProperty(hidden = true)
+    public boolean isLimitSet() {
+        return getLimit() != null;
+    }
+
     public QueryType getType() {
         return Objects.requireNonNullElse(type, QueryType.ALL);
     }
@@ -68,6 +107,10 @@ public class TransactionQueryForm extends QueryForm {
         return Objects.requireNonNullElse(periodType, QueryPeriodType.ALL);
     }
 
+    public CsvType getCsvType() {
+        return Objects.requireNonNullElse(csvType, CsvType.TRANSACTIONS);
+    }
+
     // -------------------------------------------------------------------------
     // Enums
     // -------------------------------------------------------------------------
@@ -118,6 +161,15 @@ public class TransactionQueryForm extends QueryForm {
         }
     }
 
+    @RequiredArgsConstructor
+    public enum CsvType {
+        TRANSACTIONS("Transactions", "transactions.csv"),
+        METER_VALUES("Meter values of transactions", "meterValues.csv");
+
+        @Getter private final String value;
+        @Getter private final String fileName;
+    }
+
     @ToString(callSuper = true)
     public static class ForApi extends TransactionQueryForm {
 
@@ -126,5 +178,12 @@ public class TransactionQueryForm extends QueryForm {
             setType(QueryType.ALL);
             setPeriodType(QueryPeriodType.ALL);
         }
+
+        @Override
+        public Integer getLimit() {
+            int max = CONFIG.getWebApi().getMaxPageSize();
+            Integer limit = super.getLimit();
+            return (limit == null) ? max : Math.min(limit, max);
+        }
     }
 }
@@ -0,0 +1,37 @@
+START TRANSACTION;
+
+-- number of active transactions per idTag, which is maintained by the application when transactions start and stop.
+-- replaces the aggregation over all transactions in ocpp_tag_activity.
+CREATE TABLE ocpp_tag_active_transaction (
+  id_tag VARCHAR(255) NOT NULL,
+  active_transaction_count INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id_tag)
+);
+
+ALTER TABLE `ocpp_tag_active_transaction`
+ADD CONSTRAINT `FK_ocpp_tag_active_transaction_id_tag`
+FOREIGN KEY (`id_tag`)
+REFERENCES `ocpp_tag` (`id_tag`)
+  ON DELETE CASCADE
+  ON UPDATE NO ACTION;
+
+INSERT INTO ocpp_tag_active_transaction (id_tag, active_transaction_count)
+    SELECT id_tag, count(id_tag)
+      FROM transaction
+      WHERE stop_timestamp IS NULL
+      AND stop_value IS NULL
+      GROUP BY id_tag;
+
+-- recreate this view with the same columns, to be transparent to java app
+CREATE OR REPLACE VIEW ocpp_tag_activity AS
+    SELECT
+      ocpp_tag.*,
+      -- cast, since the count(..) of the old view was a BIGINT
+      CAST(COALESCE(tx_activity.active_transaction_count, 0) AS SIGNED) as 'active_transaction_count',
+      CASE WHEN (COALESCE(tx_activity.active_transaction_count, 0) > 0) THEN TRUE ELSE FALSE END AS 'in_transaction',
+      CASE WHEN (ocpp_tag.max_active_transaction_count = 0) THEN TRUE ELSE FALSE END AS 'blocked'
+    FROM ocpp_tag
+    LEFT JOIN ocpp_tag_active_transaction tx_activity
+    ON ocpp_tag.id_tag = tx_activity.id_tag;
+
+COMMIT;
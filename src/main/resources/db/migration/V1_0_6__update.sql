@@ -0,0 +1,10 @@
+START TRANSACTION;
+
+-- for the queries of the transactions which were started or stopped since a given time
+ALTER TABLE `transaction_start`
+  ADD INDEX `transaction_start_event_timestamp_idx` (`event_timestamp` ASC);
+
+ALTER TABLE `transaction_stop`
+  ADD INDEX `transaction_stop_event_timestamp_idx` (`event_timestamp` ASC);
+
+COMMIT;
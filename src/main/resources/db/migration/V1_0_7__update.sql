@@ -0,0 +1,22 @@
+START TRANSACTION;
+
+-- summary of the meter values of a transaction, which is maintained by the application when meter values are inserted.
+-- only the meter values that are sent with a transaction id are included. energy values are in Wh, power values in W.
+CREATE TABLE transaction_meter_value_summary (
+  transaction_pk INT(10) UNSIGNED NOT NULL,
+  first_energy_timestamp TIMESTAMP(6) NULL DEFAULT NULL,
+  first_energy_value DOUBLE NULL DEFAULT NULL,
+  last_energy_timestamp TIMESTAMP(6) NULL DEFAULT NULL,
+  last_energy_value DOUBLE NULL DEFAULT NULL,
+  max_power_value DOUBLE NULL DEFAULT NULL,
+  PRIMARY KEY (transaction_pk)
+);
+
+ALTER TABLE `transaction_meter_value_summary`
+ADD CONSTRAINT `FK_transaction_meter_value_summary_transaction_pk`
+FOREIGN KEY (`transaction_pk`)
+REFERENCES `transaction_start` (`transaction_pk`)
+  ON DELETE CASCADE
+  ON UPDATE NO ACTION;
+
+COMMIT;
@@ -38,6 +38,11 @@
             <tr><td>Stop Value</td><td>${details.transaction.stopValue}</td></tr>
             <tr><td>Stop Reason</td><td>${details.transaction.stopReason}</td></tr>
             <tr><td>Stop Event Actor</td><td>${details.transaction.stopEventActor}</td></tr>
+            <c:if test="${not empty details.summary}">
+            <tr><td>First Energy Value (Wh)</td><td>${details.summary.firstEnergyValue}</td></tr>
+            <tr><td>Last Energy Value (Wh)</td><td>${details.summary.lastEnergyValue}</td></tr>
+            <tr><td>Max Power (W)</td><td>${details.summary.maxPowerValue}</td></tr>
+            </c:if>
         </table>
     </center>
     <br>
@@ -83,6 +83,17 @@ Transactions
                 <td>Get as CSV?:</td>
                 <td><form:checkbox path="returnCSV"/></td>
             </tr>
+            <tr>
+                <td>CSV Content:</td>
+                <td><form:select path="csvType">
+                        <form:options items="${csvType}" itemLabel="value"/>
+                    </form:select>
+                </td>
+            </tr>
+            <tr>
+                <td>Compress CSV (gzip)?:</td>
+                <td><form:checkbox path="gzipCSV"/></td>
+            </tr>
             <tr>
                 <td></td>
                 <td id="add_space">
@@ -58,6 +58,53 @@
 			</span>
 		</span>
 	</a>
+	<a class="tileRow1" href="${ctxPath}/manager/operations/tasks">
+		Responses of<br>JSON Charge Points
+		<span class="baseTable">
+			<span class="baseRow">
+				<span class="baseCell">Pending :</span>
+				<span class="baseCell formatNumber">${stats.numPendingResponses}</span>
+			</span>
+			<span class="baseRow">
+				<span class="baseCell">Timed out :</span>
+				<span class="baseCell formatNumber">${stats.numTimedOutResponses}</span>
+			</span>
+		</span>
+	</a>
+	<a class="tileRow1" href="${ctxPath}/manager/home/ocppJsonStatus">
+		Incoming Queues of<br>JSON Charge Points
+		<span class="baseTable">
+			<span class="baseRow">
+				<span class="baseCell">Queued :</span>
+				<span class="baseCell formatNumber">${stats.numQueuedMessages}</span>
+			</span>
+			<span class="baseRow">
+				<span class="baseCell">Longest :</span>
+				<span class="baseCell formatNumber">${stats.maxQueueDepth}</span>
+			</span>
+			<span class="baseRow">
+				<span class="baseCell">Overloaded :</span>
+				<span class="baseCell formatNumber">${stats.numOverloadedMessages}</span>
+			</span>
+		</span>
+	</a>
+	<a class="tileRow1" href="${ctxPath}/manager/home/ocppJsonStatus">
+		Handshakes of<br>JSON Charge Points
+		<span class="baseTable">
+			<span class="baseRow">
+				<span class="baseCell">Admitted :</span>
+				<span class="baseCell formatNumber">${stats.numAdmittedHandshakes}</span>
+			</span>
+			<span class="baseRow">
+				<span class="baseCell">Throttled :</span>
+				<span class="baseCell formatNumber">${stats.numThrottledHandshakes}</span>
+			</span>
+			<span class="baseRow">
+				<span class="baseCell">Saturated :</span>
+				<span class="baseCell formatNumber">${stats.numSaturatedHandshakes}</span>
+			</span>
+		</span>
+	</a>
 	<a class="tileRow1" href="${ctxPath}/manager/chargepoints">
 		Received Heartbeats
 		<span class="baseTable">
@@ -86,5 +133,7 @@
 			</c:forEach>
 		</span>
 	</a>
-</div></div>
+</div>
+<div class="info">The numbers of charge points, OCPP tags, users, reservations, transactions, heartbeats and connector statuses are from ${stats.updateTimestamp}.</div>
+</div>
 <%@ include file="00-footer.jsp" %>
\ No newline at end of file
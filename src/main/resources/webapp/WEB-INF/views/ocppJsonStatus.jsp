@@ -39,6 +39,8 @@ Connection Status for JSON Charge Points
                 <th data-sort="string">OCPP Version</th>
                 <th data-sort="date">Connected Since</th>
                 <th data-sort="string">Connection Duration</th>
+                <th data-sort="int">Ping Round Trip (ms)</th>
+                <th data-sort="int">Missed Pongs</th>
             </tr>
         </thead>
         <tbody>
@@ -47,6 +49,8 @@ Connection Status for JSON Charge Points
                 <td>${s.version.value}</td>
                 <td data-sort-value="${s.connectedSinceDT.millis}">${s.connectedSince}</td>
                 <td>${s.connectionDuration}</td>
+                <td>${s.roundTripMillis}</td>
+                <td>${s.missedPongs}</td>
             </tr>
         </c:forEach>
         </tbody>
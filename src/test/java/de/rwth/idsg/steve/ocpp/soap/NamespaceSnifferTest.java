@@ -0,0 +1,156 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.soap;
+
+import org.apache.cxf.binding.soap.Soap12;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class NamespaceSnifferTest {
+
+    private static final String NS_12 = "urn://Ocpp/Cs/2010/08/";
+    private static final String NS_15 = "urn://Ocpp/Cs/2012/06/";
+    private static final String NS_16 = "urn://Ocpp/Cs/2015/10/";
+
+    private final NamespaceSniffer sniffer = new NamespaceSniffer(List.of(NS_12, NS_15, NS_16));
+
+    @Test
+    public void testNoMatch() {
+        byte[] message = envelope("urn://Ocpp/Cs/2099/01/").getBytes(UTF_8);
+
+        Assertions.assertNull(sniffer.scan(message, message.length));
+    }
+
+    @Test
+    public void testSingleMatch() {
+        byte[] message = envelope(NS_15).getBytes(UTF_8);
+
+        Assertions.assertEquals(NS_15, sniffer.scan(message, message.length));
+    }
+
+    @Test
+    public void testSingleMatchUsedMultipleTimes() {
+        String message = "<s:Envelope xmlns:s=\"http://www.w3.org/2003/05/soap-envelope\" xmlns:o=\"" + NS_16 + "\">"
+                + "<s:Header><chargeBoxIdentity xmlns=\"" + NS_16 + "\">cb</chargeBoxIdentity></s:Header>"
+                + "<s:Body><o:heartbeatRequest/></s:Body></s:Envelope>";
+        byte[] bytes = message.getBytes(UTF_8);
+
+        Assertions.assertEquals(NS_16, sniffer.scan(bytes, bytes.length));
+    }
+
+    @Test
+    public void testMultipleVersions() {
+        String message = "<s:Envelope xmlns:s=\"http://www.w3.org/2003/05/soap-envelope\" xmlns:a=\"" + NS_12 + "\">"
+                + "<s:Body><heartbeatRequest xmlns=\"" + NS_16 + "\"/></s:Body></s:Envelope>";
+        byte[] bytes = message.getBytes(UTF_8);
+
+        Assertions.assertNull(sniffer.scan(bytes, bytes.length));
+    }
+
+    @Test
+    public void testMatchAcrossScanLimit() {
+        byte[] head = new byte[NamespaceSniffer.SCAN_LIMIT];
+        Arrays.fill(head, (byte) ' ');
+
+        // only the first half of the namespace is within the limit
+        byte[] ns = NS_16.getBytes(UTF_8);
+        int offset = NamespaceSniffer.SCAN_LIMIT - ns.length / 2;
+        System.arraycopy(ns, 0, head, offset, NamespaceSniffer.SCAN_LIMIT - offset);
+
+        Assertions.assertNull(sniffer.scan(head, NamespaceSniffer.SCAN_LIMIT));
+    }
+
+    @Test
+    public void testMatchEndingAtScanLimit() {
+        byte[] head = new byte[NamespaceSniffer.SCAN_LIMIT];
+        Arrays.fill(head, (byte) ' ');
+
+        byte[] ns = NS_16.getBytes(UTF_8);
+        System.arraycopy(ns, 0, head, NamespaceSniffer.SCAN_LIMIT - ns.length, ns.length);
+
+        Assertions.assertEquals(NS_16, sniffer.scan(head, NamespaceSniffer.SCAN_LIMIT));
+    }
+
+    @Test
+    public void testOnlyFirstLengthBytes() {
+        byte[] message = envelope(NS_15).getBytes(UTF_8);
+        int length = envelope(NS_15).indexOf(NS_15);
+
+        Assertions.assertNull(sniffer.scan(message, length));
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        byte[] message = envelope(NS_15).getBytes(UTF_8);
+
+        String actual = NamespaceSniffer.parse(new ByteArrayInputStream(message), "UTF-8", Soap12.getInstance());
+        Assertions.assertEquals(NS_15, actual);
+    }
+
+    @Test
+    public void testSniffByScan() throws Exception {
+        byte[] message = envelope(NS_16).getBytes(UTF_8);
+        BufferedInputStream bis = buffer(message);
+
+        Assertions.assertEquals(NS_16, sniffer.sniff(bis, "UTF-8", Soap12.getInstance()));
+        Assertions.assertArrayEquals(message, bis.readAllBytes());
+    }
+
+    @Test
+    public void testSniffFallsBackToParse() throws Exception {
+        // the scan finds two versions, but the body decides
+        String message = "<s:Envelope xmlns:s=\"http://www.w3.org/2003/05/soap-envelope\" xmlns:a=\"" + NS_12 + "\">"
+                + "<s:Body><heartbeatRequest xmlns=\"" + NS_16 + "\"/></s:Body></s:Envelope>";
+        byte[] bytes = message.getBytes(UTF_8);
+        BufferedInputStream bis = buffer(bytes);
+
+        Assertions.assertEquals(NS_16, sniffer.sniff(bis, "UTF-8", Soap12.getInstance()));
+        Assertions.assertArrayEquals(bytes, bis.readAllBytes());
+    }
+
+    @Test
+    public void testSniffBeyondScanLimit() throws Exception {
+        String padding = " ".repeat(NamespaceSniffer.SCAN_LIMIT);
+        String message = "<s:Envelope xmlns:s=\"http://www.w3.org/2003/05/soap-envelope\"><s:Header/>" + padding
+                + "<s:Body><heartbeatRequest xmlns=\"" + NS_15 + "\"/></s:Body></s:Envelope>";
+        byte[] bytes = message.getBytes(UTF_8);
+        BufferedInputStream bis = buffer(bytes);
+
+        Assertions.assertEquals(NS_15, sniffer.sniff(bis, "UTF-8", Soap12.getInstance()));
+        Assertions.assertArrayEquals(bytes, bis.readAllBytes());
+    }
+
+    private static BufferedInputStream buffer(byte[] message) {
+        return new BufferedInputStream(new ByteArrayInputStream(message), NamespaceSniffer.SCAN_LIMIT);
+    }
+
+    private static String envelope(String namespace) {
+        return "<s:Envelope xmlns:s=\"http://www.w3.org/2003/05/soap-envelope\">"
+                + "<s:Header/>"
+                + "<s:Body><heartbeatRequest xmlns=\"" + namespace + "\"/></s:Body>"
+                + "</s:Envelope>";
+    }
+}
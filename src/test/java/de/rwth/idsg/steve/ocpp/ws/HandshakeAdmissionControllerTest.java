@@ -0,0 +1,119 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.ocpp.ws.HandshakeAdmissionController.Rejection;
+import de.rwth.idsg.steve.ocpp.ws.HandshakeAdmissionController.RejectionReason;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+public class HandshakeAdmissionControllerTest {
+
+    @Test
+    public void testDisabled() {
+        var controller = new HandshakeAdmissionController(0, 0, 0);
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(controller.tryAcquire("10.0.0.1").isEmpty());
+        }
+        controller.release();
+
+        Assertions.assertEquals(100, controller.getAdmittedCount());
+        Assertions.assertEquals(0, controller.getInProgressCount());
+    }
+
+    @Test
+    public void testConcurrencyIsCheckedFirst() {
+        var controller = new HandshakeAdmissionController(0, 1, 1);
+
+        Assertions.assertTrue(controller.tryAcquire("10.0.0.1").isEmpty());
+        Assertions.assertEquals(1, controller.getInProgressCount());
+
+        // the bucket of the first address is empty as well, but the cap is checked before
+        assertRejected(RejectionReason.CONCURRENCY, controller.tryAcquire("10.0.0.1"));
+        assertRejected(RejectionReason.CONCURRENCY, controller.tryAcquire("10.0.0.2"));
+        Assertions.assertEquals(2, controller.getSaturatedCount());
+
+        controller.release();
+
+        // the saturated handshake did not take the token of its address
+        Assertions.assertTrue(controller.tryAcquire("10.0.0.2").isEmpty());
+        Assertions.assertEquals(2, controller.getAdmittedCount());
+    }
+
+    @Test
+    public void testIpRateReleasesPermit() {
+        var controller = new HandshakeAdmissionController(0, 1, 1);
+
+        Assertions.assertTrue(controller.tryAcquire("10.0.0.1").isEmpty());
+        controller.release();
+
+        assertRejected(RejectionReason.IP_RATE, controller.tryAcquire("10.0.0.1"));
+        Assertions.assertEquals(0, controller.getInProgressCount());
+        Assertions.assertEquals(1, controller.getThrottledCount());
+
+        // another address is not affected
+        Assertions.assertTrue(controller.tryAcquire("10.0.0.2").isEmpty());
+    }
+
+    @Test
+    public void testGlobalRateReleasesPermitAndRefundsIpToken() {
+        var controller = new HandshakeAdmissionController(1, 1, 1);
+
+        Assertions.assertTrue(controller.tryAcquire("10.0.0.1").isEmpty());
+        controller.release();
+
+        assertRejected(RejectionReason.GLOBAL_RATE, controller.tryAcquire("10.0.0.2"));
+        Assertions.assertEquals(0, controller.getInProgressCount());
+
+        // without the refund, the bucket of the address would be empty now, and the rejection would be IP_RATE
+        assertRejected(RejectionReason.GLOBAL_RATE, controller.tryAcquire("10.0.0.2"));
+        Assertions.assertEquals(0, controller.getInProgressCount());
+        Assertions.assertEquals(2, controller.getThrottledCount());
+    }
+
+    @Test
+    public void testRetryAfterRange() {
+        var controller = new HandshakeAdmissionController(0, 1, 0);
+        Assertions.assertTrue(controller.tryAcquire("10.0.0.1").isEmpty());
+
+        // the next token is available in at most one second, so the retry is after one or two seconds
+        boolean seenMin = false;
+        boolean seenMax = false;
+        for (int i = 0; i < 200; i++) {
+            Rejection rejection = assertRejected(RejectionReason.IP_RATE, controller.tryAcquire("10.0.0.1"));
+            int retryAfter = rejection.getRetryAfterSeconds();
+
+            Assertions.assertTrue(retryAfter >= 1 && retryAfter <= 2, "Unexpected Retry-After: " + retryAfter);
+            seenMin |= retryAfter == 1;
+            seenMax |= retryAfter == 2;
+        }
+
+        // randomized to spread the retries
+        Assertions.assertTrue(seenMin && seenMax);
+    }
+
+    private static Rejection assertRejected(RejectionReason expected, Optional<Rejection> actual) {
+        Assertions.assertTrue(actual.isPresent());
+        Assertions.assertEquals(expected, actual.get().getReason());
+        return actual.get();
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.ocpp.ws.StationMessageExecutor.OverloadPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class StationMessageExecutorTest {
+
+    private StationMessageExecutor executor;
+
+    @AfterEach
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutDown();
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        executor = start(0, 1, OverloadPolicy.CLOSE_SESSION);
+
+        List<String> processed = new ArrayList<>();
+        WebSocketSession session = session(new AtomicBoolean(true));
+        executor.execute("cp-1", session, () -> processed.add(Thread.currentThread().getName()));
+
+        Assertions.assertEquals(List.of(Thread.currentThread().getName()), processed);
+        Assertions.assertFalse(executor.hasQueue("cp-1"));
+    }
+
+    @Test
+    public void testOrderPerStation() throws Exception {
+        executor = start(1000, 4, OverloadPolicy.CLOSE_SESSION);
+        WebSocketSession session = session(new AtomicBoolean(true));
+
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(500);
+        for (int i = 0; i < 500; i++) {
+            int number = i;
+            executor.execute("cp-1", session, () -> {
+                processed.add(number);
+                done.countDown();
+            });
+        }
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(range(500), processed);
+        Assertions.assertEquals(500, executor.getProcessedCount());
+        Assertions.assertEquals(0, executor.getQueuedCount());
+    }
+
+    @Test
+    public void testFairnessPerTurn() throws Exception {
+        executor = start(1000, 1, OverloadPolicy.CLOSE_SESSION);
+        WebSocketSession session = session(new AtomicBoolean(true));
+
+        // keep the only worker busy, until the messages of both stations are queued
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute("cp-blocker", session, () -> await(release));
+
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(64);
+        for (String chargeBoxId : List.of("cp-a", "cp-b")) {
+            for (int i = 0; i < 32; i++) {
+                executor.execute(chargeBoxId, session, () -> {
+                    processed.add(chargeBoxId);
+                    done.countDown();
+                });
+            }
+        }
+        release.countDown();
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        List<String> expected = new ArrayList<>();
+        for (String chargeBoxId : List.of("cp-a", "cp-b", "cp-a", "cp-b")) {
+            expected.addAll(Collections.nCopies(16, chargeBoxId));
+        }
+        Assertions.assertEquals(expected, processed);
+    }
+
+    @Test
+    public void testOverloadDropMessage() throws Exception {
+        executor = start(2, 1, OverloadPolicy.DROP_MESSAGE);
+        WebSocketSession session = session(new AtomicBoolean(true));
+
+        List<Integer> processed = fillUntilOverload(session);
+
+        Assertions.assertEquals(List.of(0, 1, 2), processed);
+        Assertions.assertEquals(1, executor.getOverloadCount());
+        Mockito.verify(session, Mockito.never()).close(Mockito.any());
+    }
+
+    @Test
+    public void testOverloadCloseSession() throws Exception {
+        executor = start(2, 1, OverloadPolicy.CLOSE_SESSION);
+        WebSocketSession session = session(new AtomicBoolean(true));
+
+        List<Integer> processed = fillUntilOverload(session);
+
+        Assertions.assertEquals(List.of(0, 1, 2), processed);
+        Assertions.assertEquals(1, executor.getOverloadCount());
+        Mockito.verify(session).close(CloseStatus.SERVICE_OVERLOAD);
+    }
+
+    @Test
+    public void testIdleQueueIsRemovedOnDisconnect() throws Exception {
+        executor = start(10, 1, OverloadPolicy.CLOSE_SESSION);
+
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute("cp-1", session(new AtomicBoolean(true)), done::countDown);
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        executor.stationDisconnected("cp-1");
+
+        awaitCondition(() -> !executor.hasQueue("cp-1"));
+    }
+
+    @Test
+    public void testBusyQueueIsRemovedAfterDrain() throws Exception {
+        executor = start(10, 1, OverloadPolicy.CLOSE_SESSION);
+        AtomicBoolean open = new AtomicBoolean(true);
+        WebSocketSession session = session(open);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean skippedRan = new AtomicBoolean(false);
+
+        executor.execute("cp-1", session, () -> {
+            started.countDown();
+            await(release);
+        });
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+        executor.execute("cp-1", session, () -> skippedRan.set(true));
+
+        open.set(false);
+        executor.stationDisconnected("cp-1");
+        Assertions.assertTrue(executor.hasQueue("cp-1"));
+
+        release.countDown();
+
+        awaitCondition(() -> !executor.hasQueue("cp-1"));
+        Assertions.assertFalse(skippedRan.get());
+    }
+
+    @Test
+    public void testReconnectKeepsQueue() throws Exception {
+        executor = start(10, 1, OverloadPolicy.CLOSE_SESSION);
+        WebSocketSession session = session(new AtomicBoolean(true));
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute("cp-1", session, () -> {
+            started.countDown();
+            await(release);
+        });
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        executor.stationDisconnected("cp-1");
+
+        // the station is back, before the queue is drained
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute("cp-1", session, done::countDown);
+        release.countDown();
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        awaitCondition(() -> executor.getMaxQueueDepth() == 0);
+        Assertions.assertTrue(executor.hasQueue("cp-1"));
+    }
+
+    /**
+     * Disconnects race with the offers. Since both happen under the lock of the map entry, no message can end up in a
+     * removed queue, which would be processed in parallel to (and out of order with) the new queue of the station.
+     */
+    @Test
+    public void testOfferAndRemoveAreAtomic() throws Exception {
+        executor = start(100_000, 4, OverloadPolicy.CLOSE_SESSION);
+        WebSocketSession session = session(new AtomicBoolean(true));
+
+        int count = 20_000;
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger concurrent = new AtomicInteger(0);
+        AtomicBoolean overlapped = new AtomicBoolean(false);
+        CountDownLatch done = new CountDownLatch(count);
+
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Thread disconnector = new Thread(() -> {
+            while (producing.get()) {
+                executor.stationDisconnected("cp-1");
+            }
+        });
+        disconnector.start();
+
+        try {
+            for (int i = 0; i < count; i++) {
+                int number = i;
+                executor.execute("cp-1", session, () -> {
+                    if (concurrent.incrementAndGet() > 1) {
+                        overlapped.set(true);
+                    }
+                    processed.add(number);
+                    concurrent.decrementAndGet();
+                    done.countDown();
+                });
+            }
+        } finally {
+            producing.set(false);
+            disconnector.join();
+        }
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assertions.assertFalse(overlapped.get());
+        Assertions.assertEquals(range(count), processed);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private static StationMessageExecutor start(int queueSize, int threadCount, OverloadPolicy policy) {
+        var executor = new StationMessageExecutor(queueSize, threadCount, policy);
+        executor.init();
+        return executor;
+    }
+
+    /**
+     * Blocks the only worker with the first message, fills the queue (size 2) and offers one more
+     */
+    private List<Integer> fillUntilOverload(WebSocketSession session) throws Exception {
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+
+        executor.execute("cp-1", session, () -> {
+            started.countDown();
+            await(release);
+            processed.add(0);
+            done.countDown();
+        });
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        for (int i = 1; i <= 3; i++) {
+            int number = i;
+            executor.execute("cp-1", session, () -> {
+                processed.add(number);
+                done.countDown();
+            });
+        }
+        release.countDown();
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        return processed;
+    }
+
+    private static WebSocketSession session(AtomicBoolean open) {
+        WebSocketSession session = Mockito.mock(WebSocketSession.class);
+        Mockito.when(session.getId()).thenReturn("session-1");
+        Mockito.when(session.isOpen()).thenAnswer(invocation -> open.get());
+        return session;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Integer> range(int count) {
+        return IntStream.range(0, count).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
+import org.joda.time.DateTime;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MeterValuesWriterTest {
+
+    private static final DateTime T0 = new DateTime(2026, 10, 18, 10, 0);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testBisectionQuarantinesOnlyBadMessages() throws Exception {
+        Path spillFile = tempDir.resolve("meter-values.spill");
+        var writer = new RecordingWriter(0, spillFile);
+        writer.badTransactionIds = Set.of(3, 6);
+
+        var notWritten = writer.writeIsolated(messages(1, 8));
+
+        Assertions.assertTrue(notWritten.isEmpty());
+        Assertions.assertEquals(List.of(1, 2, 4, 5, 7, 8), writer.written);
+
+        List<String> failed = Files.readAllLines(tempDir.resolve("meter-values.spill.failed"), StandardCharsets.UTF_8);
+        Assertions.assertEquals(2, failed.size());
+        Assertions.assertTrue(failed.get(0).contains("\"transactionId\":3"));
+        Assertions.assertTrue(failed.get(1).contains("\"transactionId\":6"));
+    }
+
+    @Test
+    public void testBisectionWithoutBadMessages() {
+        var writer = new RecordingWriter(0, null);
+
+        var notWritten = writer.writeIsolated(messages(1, 8));
+
+        Assertions.assertTrue(notWritten.isEmpty());
+        Assertions.assertEquals(ids(1, 8), writer.written);
+        Assertions.assertEquals(1, writer.writeCalls);
+    }
+
+    @Test
+    public void testBisectionStopsAtOtherErrors() {
+        var writer = new RecordingWriter(0, null);
+        writer.badTransactionIds = Set.of(2);
+        writer.remainingWrites = 1;
+
+        // first half: bisected to [1] (written) and [2] (quarantined). second half: the database is gone
+        var notWritten = writer.writeIsolated(messages(1, 4));
+
+        Assertions.assertEquals(List.of(1), writer.written);
+        Assertions.assertEquals(ids(3, 4), toIds(notWritten));
+    }
+
+    @Test
+    public void testSpillAndReplay() throws Exception {
+        Path spillFile = tempDir.resolve("meter-values.spill");
+        var writer = new RecordingWriter(0, spillFile);
+
+        writer.remainingWrites = 0;
+        messages(1, 3).forEach(writer::add);
+
+        Assertions.assertTrue(writer.written.isEmpty());
+        Assertions.assertEquals(3, Files.readAllLines(spillFile, StandardCharsets.UTF_8).size());
+
+        writer.remainingWrites = Integer.MAX_VALUE;
+
+        Assertions.assertFalse(writer.replaySpillChunk());
+        Assertions.assertEquals(ids(1, 3), writer.written);
+        assertNoSpillFiles();
+    }
+
+    @Test
+    public void testReplayContinuesAtOffset() throws Exception {
+        Path spillFile = tempDir.resolve("meter-values.spill");
+        var writer = new RecordingWriter(0, spillFile);
+
+        writer.remainingWrites = 0;
+        messages(1, 1500).forEach(writer::add);
+
+        // the first chunk is written, then the database is gone
+        writer.remainingWrites = 1;
+        Assertions.assertTrue(writer.replaySpillChunk());
+        Assertions.assertFalse(writer.replaySpillChunk());
+        Assertions.assertEquals(ids(1, 1000), writer.written);
+        Assertions.assertEquals("1000", Files.readString(tempDir.resolve("meter-values.spill.processing.offset")));
+
+        // new values are spilled into a fresh file in the meantime
+        writer.remainingWrites = 0;
+        messages(1501, 1502).forEach(writer::add);
+
+        writer.remainingWrites = Integer.MAX_VALUE;
+        Assertions.assertTrue(writer.replaySpillChunk());
+        Assertions.assertFalse(writer.replaySpillChunk());
+        Assertions.assertEquals(ids(1, 1502), writer.written);
+        assertNoSpillFiles();
+    }
+
+    @Test
+    public void testCrashBetweenWriteAndOffset() throws Exception {
+        Path spillFile = tempDir.resolve("meter-values.spill");
+        var writer = new RecordingWriter(0, spillFile);
+
+        writer.remainingWrites = 0;
+        messages(1, 1500).forEach(writer::add);
+
+        // the second chunk is committed, but the process dies before the offset is updated
+        writer.remainingWrites = Integer.MAX_VALUE;
+        writer.crashAfterWrites = 2;
+        Assertions.assertTrue(writer.replaySpillChunk());
+        Assertions.assertThrows(Crash.class, writer::replaySpillChunk);
+        Assertions.assertEquals(ids(1, 1500), writer.written);
+
+        // after the restart, only the second chunk is written again
+        var restarted = new RecordingWriter(0, spillFile);
+        Assertions.assertFalse(restarted.replaySpillChunk());
+        Assertions.assertEquals(ids(1001, 1500), restarted.written);
+        assertNoSpillFiles();
+    }
+
+    @Test
+    public void testReplayWithoutQueue() throws Exception {
+        Path spillFile = tempDir.resolve("meter-values.spill");
+        var writer = new RecordingWriter(0, spillFile);
+
+        writer.remainingWrites = 0;
+        messages(1, 3).forEach(writer::add);
+        writer.remainingWrites = Integer.MAX_VALUE;
+
+        writer.init();
+        try {
+            awaitWritten(writer, 3);
+        } finally {
+            writer.shutDown();
+        }
+
+        Assertions.assertEquals(ids(1, 3), writer.written);
+        assertNoSpillFiles();
+    }
+
+    @Test
+    public void testQueue() throws Exception {
+        var writer = new RecordingWriter(100, null);
+
+        writer.init();
+        try {
+            messages(1, 50).forEach(writer::add);
+            awaitWritten(writer, 50);
+        } finally {
+            writer.shutDown();
+        }
+
+        Assertions.assertEquals(ids(1, 50), writer.written);
+        Assertions.assertEquals(0, writer.getQueueSize());
+    }
+
+    private void assertNoSpillFiles() throws Exception {
+        try (var files = Files.list(tempDir)) {
+            Assertions.assertEquals(List.of(), files.collect(Collectors.toList()));
+        }
+    }
+
+    private static void awaitWritten(RecordingWriter writer, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writer.written.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static List<InsertMeterValuesParams> messages(int fromTransactionId, int toTransactionId) {
+        return IntStream.rangeClosed(fromTransactionId, toTransactionId)
+                        .mapToObj(MeterValuesWriterTest::message)
+                        .collect(Collectors.toList());
+    }
+
+    private static InsertMeterValuesParams message(int transactionId) {
+        return InsertMeterValuesParams.builder()
+                                      .chargeBoxId("cp-1")
+                                      .connectorId(1)
+                                      .transactionId(transactionId)
+                                      .values(List.of(InsertMeterValuesParams.Value.builder()
+                                                                                   .valueTimestamp(T0)
+                                                                                   .value("100")
+                                                                                   .build()))
+                                      .build();
+    }
+
+    private static List<Integer> ids(int from, int to) {
+        return IntStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Integer> toIds(List<InsertMeterValuesParams> batch) {
+        return batch.stream().map(InsertMeterValuesParams::getTransactionId).collect(Collectors.toList());
+    }
+
+    private static final class Crash extends Error {
+    }
+
+    /**
+     * Records the transactionIds instead of writing to database, and fails like the database would.
+     */
+    private static final class RecordingWriter extends MeterValuesWriter {
+
+        private final List<Integer> written = new CopyOnWriteArrayList<>();
+
+        private volatile Set<Integer> badTransactionIds = Set.of();
+        private volatile int remainingWrites = Integer.MAX_VALUE;
+        private volatile int crashAfterWrites = Integer.MAX_VALUE;
+        private volatile int writeCalls;
+
+        private RecordingWriter(int queueSize, Path spillFile) {
+            super(null, null, queueSize, spillFile);
+        }
+
+        @Override
+        void write(List<InsertMeterValuesParams> batch) {
+            writeCalls++;
+
+            for (InsertMeterValuesParams p : batch) {
+                if (badTransactionIds.contains(p.getTransactionId())) {
+                    throw new DataAccessException("Bad data", new SQLException("Foreign key violation", "23000"));
+                }
+            }
+
+            if (remainingWrites <= 0) {
+                throw new DataAccessException("Database is gone", new SQLException("Connection lost", "08S01"));
+            }
+
+            remainingWrites--;
+            written.addAll(toIds(batch));
+
+            if (--crashAfterWrites == 0) {
+                throw new Crash();
+            }
+        }
+    }
+}
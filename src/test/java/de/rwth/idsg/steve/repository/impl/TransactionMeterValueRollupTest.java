@@ -0,0 +1,144 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
+import org.joda.time.DateTime;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class TransactionMeterValueRollupTest {
+
+    private static final DateTime T0 = new DateTime(2026, 10, 18, 10, 0);
+
+    @Test
+    public void testFirstAndLastEnergy() {
+        var rollup = aggregateOne(message(1, energy(T0, "100"), energy(T0.plusMinutes(1), "150")),
+                                  message(1, energy(T0.plusMinutes(2), "200")));
+
+        Assertions.assertEquals(T0, rollup.getFirstEnergyTimestamp());
+        Assertions.assertEquals(100.0, rollup.getFirstEnergyValue());
+        Assertions.assertEquals(T0.plusMinutes(2), rollup.getLastEnergyTimestamp());
+        Assertions.assertEquals(200.0, rollup.getLastEnergyValue());
+    }
+
+    @Test
+    public void testOutOfOrderEnergy() {
+        var rollup = aggregateOne(message(1, energy(T0.plusMinutes(1), "150")),
+                                  message(1, energy(T0.plusMinutes(2), "200")),
+                                  message(1, energy(T0, "100")));
+
+        Assertions.assertEquals(T0, rollup.getFirstEnergyTimestamp());
+        Assertions.assertEquals(100.0, rollup.getFirstEnergyValue());
+        Assertions.assertEquals(T0.plusMinutes(2), rollup.getLastEnergyTimestamp());
+        Assertions.assertEquals(200.0, rollup.getLastEnergyValue());
+    }
+
+    @Test
+    public void testEnergyInKWh() {
+        var rollup = aggregateOne(message(1, value(T0, "1.5", "Energy.Active.Import.Register", "kWh")));
+
+        Assertions.assertEquals(1500.0, rollup.getFirstEnergyValue());
+        Assertions.assertEquals(1500.0, rollup.getLastEnergyValue());
+    }
+
+    @Test
+    public void testMaxPower() {
+        var rollup = aggregateOne(message(1, power(T0, "3000", "W"), power(T0.plusMinutes(1), "11", "kW")),
+                                  message(1, power(T0.plusMinutes(2), "7000", "W")));
+
+        Assertions.assertEquals(11000.0, rollup.getMaxPowerValue());
+        Assertions.assertNull(rollup.getFirstEnergyValue());
+        Assertions.assertNull(rollup.getLastEnergyValue());
+    }
+
+    @Test
+    public void testPerTransaction() {
+        Collection<TransactionMeterValueRollup> rollups = TransactionMeterValueRollup.aggregate(List.of(
+                message(1, energy(T0, "100")),
+                message(2, energy(T0, "500")),
+                message(null, energy(T0, "900"))
+        ));
+
+        List<TransactionMeterValueRollup> list = new ArrayList<>(rollups);
+        Assertions.assertEquals(2, list.size());
+        Assertions.assertEquals(1, list.get(0).getTransactionPk());
+        Assertions.assertEquals(100.0, list.get(0).getLastEnergyValue());
+        Assertions.assertEquals(2, list.get(1).getTransactionPk());
+        Assertions.assertEquals(500.0, list.get(1).getLastEnergyValue());
+    }
+
+    /**
+     * The later assignments of ON DUPLICATE KEY UPDATE see the updated values. Therefore, the energy values must be
+     * assigned before their timestamps.
+     */
+    @Test
+    public void testUpsertAssignsValuesBeforeTimestamps() {
+        var rollup = aggregateOne(message(1, energy(T0, "100"), energy(T0.plusMinutes(1), "150")));
+
+        String sql = rollup.toUpsert(DSL.using(SQLDialect.MYSQL)).getSQL().toLowerCase();
+        String update = sql.substring(sql.indexOf("on duplicate key update"));
+
+        Assertions.assertTrue(update.indexOf("first_energy_value` =") < update.indexOf("first_energy_timestamp` ="));
+        Assertions.assertTrue(update.indexOf("last_energy_value` =") < update.indexOf("last_energy_timestamp` ="));
+        Assertions.assertFalse(update.contains("max_power_value` ="));
+    }
+
+    private static TransactionMeterValueRollup aggregateOne(InsertMeterValuesParams... messages) {
+        var rollups = TransactionMeterValueRollup.aggregate(Arrays.asList(messages));
+        Assertions.assertEquals(1, rollups.size());
+        return rollups.iterator().next();
+    }
+
+    private static InsertMeterValuesParams message(Integer transactionId, InsertMeterValuesParams.Value... values) {
+        return InsertMeterValuesParams.builder()
+                                      .chargeBoxId("cb")
+                                      .connectorId(1)
+                                      .transactionId(transactionId)
+                                      .values(Arrays.asList(values))
+                                      .build();
+    }
+
+    private static InsertMeterValuesParams.Value energy(DateTime ts, String value) {
+        return InsertMeterValuesParams.Value.builder()
+                                            .valueTimestamp(ts)
+                                            .value(value)
+                                            .build();
+    }
+
+    private static InsertMeterValuesParams.Value power(DateTime ts, String value, String unit) {
+        return value(ts, value, "Power.Active.Import", unit);
+    }
+
+    private static InsertMeterValuesParams.Value value(DateTime ts, String value, String measurand, String unit) {
+        return InsertMeterValuesParams.Value.builder()
+                                            .valueTimestamp(ts)
+                                            .value(value)
+                                            .measurand(measurand)
+                                            .unit(unit)
+                                            .build();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2023 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Sevket Goekay <sevketgokay@gmail.com>
+ * @since 18.10.2026
+ */
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBurstUpToCapacity() {
+        var bucket = new TokenBucket(10, 3, 0);
+
+        Assertions.assertEquals(0, bucket.tryAcquire(0));
+        Assertions.assertEquals(0, bucket.tryAcquire(0));
+        Assertions.assertEquals(0, bucket.tryAcquire(0));
+        Assertions.assertEquals(SECOND / 10, bucket.tryAcquire(0));
+    }
+
+    @Test
+    public void testRefill() {
+        var bucket = new TokenBucket(10, 1, 0);
+
+        Assertions.assertEquals(0, bucket.tryAcquire(0));
+        Assertions.assertEquals(SECOND / 20, bucket.tryAcquire(SECOND / 20));
+        Assertions.assertEquals(0, bucket.tryAcquire(SECOND / 10));
+    }
+
+    @Test
+    public void testRefund() {
+        var bucket = new TokenBucket(10, 1, 0);
+
+        Assertions.assertEquals(0, bucket.tryAcquire(0));
+        bucket.refund();
+        Assertions.assertEquals(0, bucket.tryAcquire(0));
+
+        // not above the capacity
+        bucket.refund();
+        bucket.refund();
+        Assertions.assertEquals(0, bucket.tryAcquire(0));
+        Assertions.assertTrue(bucket.tryAcquire(0) > 0);
+    }
+
+    @Test
+    public void testRefillDoesNotExceedCapacity() {
+        var bucket = new TokenBucket(10, 2, 0);
+
+        Assertions.assertEquals(0, bucket.tryAcquire(10 * SECOND));
+        Assertions.assertEquals(0, bucket.tryAcquire(10 * SECOND));
+        Assertions.assertTrue(bucket.tryAcquire(10 * SECOND) > 0);
+    }
+}
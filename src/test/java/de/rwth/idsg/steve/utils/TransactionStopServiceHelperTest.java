@@ -18,6 +18,7 @@
  */
 package de.rwth.idsg.steve.utils;
 
+import de.rwth.idsg.steve.repository.dto.InsertMeterValuesParams;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -152,4 +153,35 @@ public class TransactionStopServiceHelperTest {
 
         Assertions.assertFalse(TransactionStopServiceHelper.isEnergyValue(value));
     }
+
+    @Test
+    public void testIsPower_kWUnit() {
+        var value = InsertMeterValuesParams.Value.builder()
+            .value("11.5")
+            .unit("kW")
+            .measurand("Power.Active.Import")
+            .build();
+
+        Assertions.assertTrue(TransactionStopServiceHelper.isPowerValue(value));
+        Assertions.assertFalse(TransactionStopServiceHelper.isEnergyValue(value));
+    }
+
+    @Test
+    public void testIsPower_singlePhase() {
+        var value = InsertMeterValuesParams.Value.builder()
+            .value("3800")
+            .unit("W")
+            .measurand("Power.Active.Import")
+            .phase("L1")
+            .build();
+
+        Assertions.assertFalse(TransactionStopServiceHelper.isPowerValue(value));
+    }
+
+    @Test
+    public void testToBaseUnit() {
+        Assertions.assertEquals(12000.0, TransactionStopServiceHelper.toBaseUnit("12", "kWh"));
+        Assertions.assertEquals(11500.0, TransactionStopServiceHelper.toBaseUnit("11.5", "kW"));
+        Assertions.assertEquals(22.0, TransactionStopServiceHelper.toBaseUnit("22", "Wh"));
+    }
 }
@@ -28,6 +28,9 @@ import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
 import de.rwth.idsg.steve.repository.impl.AddressRepositoryImpl;
 import de.rwth.idsg.steve.repository.impl.ChargePointRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.ConnectorPkCacheImpl;
+import de.rwth.idsg.steve.repository.impl.EndpointAddressStoreImpl;
+import de.rwth.idsg.steve.repository.impl.HeartbeatStoreImpl;
 import de.rwth.idsg.steve.repository.impl.OcppTagRepositoryImpl;
 import de.rwth.idsg.steve.repository.impl.ReservationRepositoryImpl;
 import de.rwth.idsg.steve.repository.impl.TransactionRepositoryImpl;
@@ -125,7 +128,7 @@ public class __DatabasePreparer__ {
     }
 
     public static List<ConnectorStatus> getChargePointConnectorStatus() {
-        ChargePointRepositoryImpl impl = new ChargePointRepositoryImpl(dslContext, new AddressRepositoryImpl());
+        ChargePointRepositoryImpl impl = newChargePointRepository();
         return impl.getChargePointConnectorStatus();
     }
 
@@ -140,12 +143,21 @@ public class __DatabasePreparer__ {
     }
 
     public static ChargePoint.Details getCBDetails(String chargeboxID) {
-        ChargePointRepositoryImpl impl = new ChargePointRepositoryImpl(dslContext, new AddressRepositoryImpl());
+        ChargePointRepositoryImpl impl = newChargePointRepository();
         Map<String, Integer> pkMap = impl.getChargeBoxIdPkPair(Arrays.asList(chargeboxID));
         int pk = pkMap.get(chargeboxID);
         return impl.getDetails(pk);
     }
 
+    private static ChargePointRepositoryImpl newChargePointRepository() {
+        // no executor, since we do not need the periodic flushing of heartbeats here
+        HeartbeatStoreImpl heartbeatStore = new HeartbeatStoreImpl(dslContext, null);
+        // endpoint addresses are written by the calling thread
+        EndpointAddressStoreImpl endpointAddressStore = new EndpointAddressStoreImpl(dslContext, Runnable::run);
+        return new ChargePointRepositoryImpl(dslContext, new AddressRepositoryImpl(), heartbeatStore,
+                new ConnectorPkCacheImpl(dslContext), endpointAddressStore);
+    }
+
     private static void runOperation(Consumer<DSLContext> consumer) {
         consumer.accept(dslContext);
     }
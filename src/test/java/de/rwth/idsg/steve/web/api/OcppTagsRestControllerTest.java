@@ -57,6 +57,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -514,6 +515,72 @@ public class OcppTagsRestControllerTest extends AbstractControllerTest {
         assertEquals(capturedForm.getBlocked(), OcppTagQueryForm.BooleanType.FALSE);
     }
 
+    @Test
+    @DisplayName("GET all: Full page has the header for the next page, expected 200")
+    public void test22() throws Exception {
+        // given
+        List<OcppTag.Overview> results = List.of(OcppTag.Overview.builder().ocppTagPk(96).build());
+
+        // when
+        when(ocppTagService.getOverview(any())).thenReturn(results);
+
+        // then
+        mockMvc.perform(get("/api/v1/ocppTags")
+                .param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(TransactionsRestController.NEXT_PAGE_HEADER, "96"));
+    }
+
+    @Test
+    @DisplayName("GET all: Last page has no header for the next page, expected 200")
+    public void test23() throws Exception {
+        // given
+        List<OcppTag.Overview> results = List.of(OcppTag.Overview.builder().ocppTagPk(96).build());
+
+        // when
+        when(ocppTagService.getOverview(any())).thenReturn(results);
+
+        // then
+        mockMvc.perform(get("/api/v1/ocppTags")
+                .param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(TransactionsRestController.NEXT_PAGE_HEADER));
+    }
+
+    @Test
+    @DisplayName("GET all: Next page starts after the value of the header, expected 200")
+    public void test24() throws Exception {
+        // given
+        ArgumentCaptor<OcppTagQueryForm.ForApi> formToCapture = ArgumentCaptor.forClass(OcppTagQueryForm.ForApi.class);
+
+        // when
+        when(ocppTagService.getOverview(any())).thenReturn(Collections.emptyList());
+
+        // then
+        mockMvc.perform(get("/api/v1/ocppTags")
+                .param("afterOcppTagPk", "96")
+                .param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(TransactionsRestController.NEXT_PAGE_HEADER));
+
+        verify(ocppTagService).getOverview(formToCapture.capture());
+        OcppTagQueryForm.ForApi capturedForm = formToCapture.getValue();
+
+        assertEquals(96, capturedForm.getAfterOcppTagPk());
+        assertEquals(1, capturedForm.getLimit());
+    }
+
+    @Test
+    @DisplayName("GET all: Limit of zero makes validation fail, expected 400")
+    public void test25() throws Exception {
+        mockMvc.perform(get("/api/v1/ocppTags")
+                .param("limit", "0"))
+            .andExpect(status().isBadRequest())
+            .andExpectAll(errorJsonMatchers());
+
+        verifyNoInteractions(ocppTagService);
+    }
+
     private static ResultMatcher[] errorJsonMatchers() {
         return new ResultMatcher[]{
             jsonPath("$.timestamp").exists(),
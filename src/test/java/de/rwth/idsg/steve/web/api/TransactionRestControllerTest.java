@@ -44,6 +44,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -251,6 +252,38 @@ public class TransactionRestControllerTest extends AbstractControllerTest {
         assertEquals(capturedForm.getPeriodType(), TransactionQueryForm.QueryPeriodType.LAST_30);
     }
 
+    @Test
+    @DisplayName("GET all: Full page has the header for the next page, expected 200")
+    public void test12() throws Exception {
+        // given
+        List<Transaction> results = List.of(Transaction.builder().id(234).build());
+
+        // when
+        when(transactionRepository.getTransactions(any())).thenReturn(results);
+
+        // then
+        mockMvc.perform(get("/api/v1/transactions")
+                .param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(TransactionsRestController.NEXT_PAGE_HEADER, "234"));
+    }
+
+    @Test
+    @DisplayName("GET all: Last page has no header for the next page, expected 200")
+    public void test13() throws Exception {
+        // given
+        List<Transaction> results = List.of(Transaction.builder().id(234).build());
+
+        // when
+        when(transactionRepository.getTransactions(any())).thenReturn(results);
+
+        // then
+        mockMvc.perform(get("/api/v1/transactions")
+                .param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(TransactionsRestController.NEXT_PAGE_HEADER));
+    }
+
     private static ResultMatcher[] errorJsonMatchers() {
         return new ResultMatcher[] {
             jsonPath("$.timestamp").exists(),